@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.benchmarks;
+
+import edu.wpi.first.math.controller.ArmFeedforward;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.Constants.Arm.ArmState;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The roboRIO closed loops, set up the way Shooter and Arm set them up. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClosedLoopBenchmark {
+    private final PIDController m_shooterPID =
+            new PIDController(Constants.Shooter.kP, Constants.Shooter.kI, Constants.Shooter.kD);
+
+    private final ProfiledPIDController m_armController =
+            new ProfiledPIDController(
+                    Constants.Arm.kP,
+                    Constants.Arm.kI,
+                    Constants.Arm.kD,
+                    Constants.Arm.kConstraints);
+    private final ArmFeedforward m_armFeedforward =
+            new ArmFeedforward(Constants.Arm.kS, Constants.Arm.kG, Constants.Arm.kV);
+    private final SimpleMotorFeedforward m_shooterFeedforward =
+            new SimpleMotorFeedforward(
+                    Constants.Shooter.kS, Constants.Shooter.kV, Constants.Shooter.kA);
+
+    // Noisy measurements around the setpoints.
+    private final double[] m_noise = new double[64];
+    private int m_index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7125);
+        for (int i = 0; i < m_noise.length; i++) {
+            m_noise[i] = random.nextGaussian();
+        }
+        m_shooterPID.setTolerance(0, Constants.Shooter.kPIDTolerance);
+        m_shooterPID.setSetpoint(Constants.Shooter.kShootRPM);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetArm() {
+        m_armController.reset(ArmState.INTAKE.kPosition);
+        m_armController.setGoal(ArmState.AMP.kPosition);
+    }
+
+    private double nextNoise() {
+        m_index = (m_index + 1) & (m_noise.length - 1);
+        return m_noise[m_index];
+    }
+
+    @Benchmark
+    public double shooterPID() {
+        double measurement = Constants.Shooter.kShootRPM + 100 * nextNoise();
+        double ffVolts = m_shooterFeedforward.calculate(m_shooterPID.getSetpoint() / 60);
+        return 12D * m_shooterPID.calculate(measurement) + ffVolts;
+    }
+
+    /**
+     * The move takes a few dozen calls, so it's restarted each time the profile reaches its goal.
+     * Otherwise nearly every call would only be holding the goal, not following the profile.
+     */
+    @Benchmark
+    public double armProfiledPID() {
+        // atGoal() also needs the noisy measurement in tolerance, the profile itself is done here.
+        if (m_armController.getSetpoint().equals(m_armController.getGoal())) resetArm();
+        double measurement = m_armController.getSetpoint().position + nextNoise();
+        double pidOutput = m_armController.calculate(measurement);
+        TrapezoidProfile.State setpoint = m_armController.getSetpoint();
+        double ffVolts =
+                m_armFeedforward.calculate(
+                        Math.toRadians(setpoint.position - Constants.Arm.kHorizontalPosition),
+                        setpoint.velocity);
+        return 12D * pidOutput + ffVolts;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.benchmarks;
+
+import edu.wpi.first.wpilibj.drive.DifferentialDrive;
+import edu.wpi.first.wpilibj.drive.DifferentialDrive.WheelSpeeds;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The drive inverse kinematics, called the way Drivetrain's drive commands call them. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveBenchmark {
+    // Varying stick inputs, so the JIT can't fold the math away.
+    private final double[] m_inputs = new double[64];
+    private int m_index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7125);
+        for (int i = 0; i < m_inputs.length; i++) {
+            m_inputs[i] = random.nextDouble() * 2 - 1;
+        }
+    }
+
+    private double nextInput() {
+        m_index = (m_index + 1) & (m_inputs.length - 1);
+        return m_inputs[m_index];
+    }
+
+    @Benchmark
+    public WheelSpeeds arcadeDriveIK() {
+        return DifferentialDrive.arcadeDriveIK(nextInput(), nextInput(), true);
+    }
+
+    @Benchmark
+    public WheelSpeeds curvatureDriveIK() {
+        return DifferentialDrive.curvatureDriveIK(nextInput(), nextInput(), true);
+    }
+}
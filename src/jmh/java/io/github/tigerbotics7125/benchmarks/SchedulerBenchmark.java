@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import io.github.tigerbotics7125.Robot;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A full teleop loop against simulated hardware, with the real robot's subsystems, default
+ * commands, the drive control map and all button bindings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchedulerBenchmark {
+    private Robot m_robot;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+
+        m_robot = new Robot();
+        m_robot.robotInit();
+        m_robot.teleopInit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        CommandScheduler.getInstance().cancelAll();
+        CommandScheduler.getInstance().unregisterAllSubsystems();
+        m_robot.close();
+    }
+
+    @Benchmark
+    public void schedulerRun() {
+        CommandScheduler.getInstance().run();
+    }
+
+    /** The scheduler plus everything around it: sensor snapshot, profiling and telemetry. */
+    @Benchmark
+    public void robotPeriodic() {
+        m_robot.robotPeriodic();
+    }
+}
@@ -6,31 +6,148 @@
 package io.github.tigerbotics7125;
 
 import com.revrobotics.CANSparkLowLevel.MotorType;
-import edu.wpi.first.math.controller.ArmFeedforward;
-import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
+import io.github.tigerbotics7125.tigerLib.CameraManager.Profile;
+import io.github.tigerbotics7125.tigerLib.InputShaper.Config;
 
 public final class Constants {
+    /** Where a mechanism's closed loop runs. */
+    public enum ClosedLoopLocation {
+        /** A WPILib controller at 50 Hz, sending voltages over CAN. */
+        ROBORIO,
+        /** The SparkMax's own controller at 1 kHz, only setpoints are sent. */
+        ONBOARD;
+    }
+
     public static final class HID {
         public static final int kDriverControllerPort = 0;
         public static final int kOperatorControllerPort = 1;
     }
 
+    public static final class CAN {
+        // Status frame periods, ms.
+        public static final int kFastFrame = 10;
+        public static final int kDefaultFrame = 20;
+        public static final int kSlowFrame = 500;
+
+        // An unchanged output is still sent this often, seconds. MotorSafety's default timeout.
+        public static final double kKeepAlivePeriod = .1;
+        // Outputs closer than this to the last one sent count as unchanged.
+        public static final double kOutputTolerance = 1E-3;
+    }
+
+    public static final class Power {
+        // Shooter and arm loops are compensated to this, their duty cycle is a fraction of it.
+        public static final double kNominalVoltage = 12;
+        // The budget keeps the battery above kMinVoltage, clear of the roboRIO's 6.8 V brownout.
+        public static final double kBatteryResistance = .015; // ohms, battery and wiring.
+        public static final double kMinVoltage = 7.5;
+        public static final double kRecoveryRate = 100; // amps per second
+        public static final int kPeriodCycles = 5;
+        public static final int kLimitStep = 5; // amps
+    }
+
+    public static final class Camera {
+        // Disabled is only for lining up, auto needs little, teleop gets the most.
+        public static final Profile kDisabled = new Profile(160, 120, 10, 30);
+        public static final Profile kAutonomous = new Profile(160, 120, 15, 30);
+        public static final Profile kTeleop = new Profile(320, 240, 20, 50);
+        // 1.5 Mbit/s of the field's 4 Mbit/s radio bandwidth.
+        public static final double kMaxBytesPerSecond = 1.5E6 / 8;
+    }
+
+    public static final class Warmup {
+        // Enough passes for the JIT's top tier to have compiled each hot path.
+        public static final int kPasses = 200;
+        // Seconds of each disabled loop spent warming up, well clear of an overrun.
+        public static final double kBudget = .005;
+    }
+
+    public static final class SysId {
+        // Deploy file of feedforward gains fitted by SysId, each overrides its constant.
+        public static final String kGainsFile = "feedforward.properties";
+        // The arm has under 100 degrees of travel, so its tests are gentler than the default.
+        public static final double kArmRampRate = .5; // volts per second
+        public static final double kArmStep = 3; // volts
+        // Arm tests stop this far short of a hard stop.
+        public static final double kArmMargin = 10; // degrees
+    }
+
     public static final class DriveTrain {
+        /** Each with its own shaping of the throttle and turn axes. */
         public enum ControlType {
-            ARCADE,
-            ARCADE_ROCKETLEAGUE,
-            CURVE,
-            CURVE_ROCKETLEAGUE;
+            ARCADE(new Config(.08, .3, 3), new Config(.08, .5, 4)),
+            // Triggers rest at zero, so need less deadband than a stick.
+            ARCADE_ROCKETLEAGUE(new Config(.04, .2, 3), new Config(.08, .5, 4)),
+            // Curvature already scales turning with speed, so it isn't slew limited.
+            CURVE(new Config(.08, .3, 3), new Config(.08, .3, 0)),
+            CURVE_ROCKETLEAGUE(new Config(.04, .2, 3), new Config(.08, .3, 0));
+
+            public final Config kThrottle;
+            public final Config kTurn;
+
+            ControlType(Config throttle, Config turn) {
+                kThrottle = throttle;
+                kTurn = turn;
+            }
         }
 
         public static final MotorType kMotorType = MotorType.kBrushed;
 
         public static final int kCurrentLimit = 60;
+        // The PowerManager cuts the limit as far as this when the battery can't supply everyone.
+        public static final int kMinCurrentLimit = 30;
 
         public static final int kFrontLeftID = 1;
         public static final int kFrontRightID = 2;
         public static final int kBackLeftID = 3;
         public static final int kBackRightID = 4;
+        public static final int kPigeonID = 10;
+
+        // Quadrature encoders on the gearbox output shafts, wired to the leaders' data ports.
+        public static final int kEncoderCountsPerRev = 2048;
+        public static final boolean kLeftEncoderInverted = false;
+        public static final boolean kRightEncoderInverted = true;
+        public static final double kWheelDiameter = Units.inchesToMeters(6); // meters
+        public static final double kPositionConversionFactor = Math.PI * kWheelDiameter;
+        public static final double kVelocityConversionFactor = kPositionConversionFactor / 60D;
+
+        public static final double kTrackWidth = .55; // meters
+        public static final DifferentialDriveKinematics kKinematics =
+                new DifferentialDriveKinematics(kTrackWidth);
+
+        // Kitbot estimates until SysId.kGainsFile has a fit, Drivetrain warns on boot until then.
+        public static final double kS = 0; // volts
+        public static final double kV = 3; // volts per meter per second
+        public static final double kA = .5; // volts per meter per second squared
+        public static final double kP = 1; // volts per meter per second of error
+
+        // Output rising past this starts a latency trace, which ends once the controller reports
+        // applying it within tolerance, or is dropped after the timeout. Its status frames are
+        // watched for every period.
+        public static final double kLatencyTraceThreshold = .25;
+        public static final double kLatencyTraceTolerance = .02;
+        public static final double kLatencyTraceTimeout = .5; // seconds
+        public static final double kLatencyTracePeriod = .001; // seconds
+
+        // Trajectories are generated with these at build time.
+        public static final double kMaxAutoVelocity = 2; // meters per second
+        public static final double kMaxAutoAcceleration = 2; // meters per second squared
+        public static final double kMaxAutoVoltage = 10; // volts
+
+        // Odometry runs on its own thread, faster than the main loop.
+        public static final double kOdometryPeriod = .005; // seconds
+        public static final int kOdometryFrame = 5; // ms
+    }
+
+    public static final class Field {
+        public static final double kLength = 16.54; // meters
+        // Center of each speaker opening, on the alliance wall.
+        public static final Translation2d kBlueSpeaker = new Translation2d(0, 5.55);
+        public static final Translation2d kRedSpeaker = new Translation2d(16.54, 5.55);
     }
 
     public static final class Intake {
@@ -38,12 +155,26 @@ public final class Constants {
         public static final int kIntakeID = 5;
 
         public static final int kCurrentLimit = 25;
+        public static final int kMinCurrentLimit = 15; // Lowest the PowerManager cuts to.
 
         public static final boolean kInverted = false;
 
         public static final double kIntakeSpeed = 0.5;
         public static final double kFeedSpeed = 1D;
         public static final double kMaxOutakeSpeed = -0.25;
+        // Below this the rollers aren't squeezing a note.
+        public static final double kNoteCurrent = 10; // amps
+        // Note detection, seconds. Current is ignored while the rollers spin up, and must stay
+        // above or below kNoteCurrent for kNoteDebounce to count.
+        public static final double kCurrentTimeConstant = .02;
+        public static final double kSpinUpTime = .1;
+        public static final double kNoteDebounce = .06;
+        // A held note is gone once the rollers have pushed it out or fed it for this long.
+        public static final double kReleaseTime = .1;
+
+        // Simulation only, estimates.
+        public static final double kGearing = 3;
+        public static final double kMOI = .0005; // kg m^2
     }
 
     public static final class Shooter {
@@ -52,16 +183,39 @@ public final class Constants {
         public static final int kRightID = 7;
 
         public static final int kCurrentLimit = 90;
+        public static final int kMinCurrentLimit = 30; // Lowest the PowerManager cuts to.
 
         public static final boolean kInvertedFollower = true;
 
         public static final double kP = 0.0004;
         public static final double kI = 0;
         public static final double kD = 0;
-        public static final double kFF = 0.00017;
+        // Hand tuned as 0.00017 duty cycle per rpm, used until SysId.kGainsFile has a fit.
+        public static final double kS = 0; // volts
+        public static final double kV = 0.00017 * Power.kNominalVoltage * 60; // volts per rps
+        public static final double kA = 0; // volts per rps per second
         public static final double kPIDTolerance = 300; // rpm
+        public static final ClosedLoopLocation kClosedLoopLocation = ClosedLoopLocation.ONBOARD;
 
         public static final double kShootRPM = 5700;
+        public static final double kIdleRPM = 4000; // Pre-spin, a bit below shooting speed.
+        // Inside this distance from the speaker the flywheel ramps to the shot rpm for it.
+        public static final double kPreSpinDistance = 5; // meters
+        // Deploy file of distance (meters) to shot rpm.
+        public static final String kRPMMapFile = "shooter_rpm.csv";
+        public static final double kRPMMapResolution = .05; // meters
+
+        // Seconds from starting the feed to the note reaching the flywheel, feeding starts this
+        // far ahead of the flywheel being predicted in tolerance.
+        public static final double kFeedLead = .08;
+        // A note leaving pulls the flywheel at least this far below its peak during the feed.
+        public static final double kShotDip = 250; // rpm
+        public static final double kFeedTimeout = 1; // seconds, in case the exit is missed.
+        public static final double kAccelerationTimeConstant = .06; // seconds
+
+        // Simulation only, estimates.
+        public static final double kGearing = 1;
+        public static final double kMOI = .004; // kg m^2
     }
 
     public static final class Arm {
@@ -70,18 +224,30 @@ public final class Constants {
         public static final int kRightID = 9;
 
         public static final int kCurrentLimit = 50;
+        // Above kStallCurrent, or a cut limit would stop the stall monitor from ever tripping.
+        public static final int kMinCurrentLimit = 45;
 
         public static final boolean kFollowerInverted = true;
 
         public static final double kP = .01;
         public static final double kI = 0; // Integral term should be done with FF instead.
         public static final double kD = 0; // .5;
-        public static final PIDController kPID = new PIDController(kP, kI, kD);
-        // TODO look into sysid to characterize this.
-        public static final double kS = 0;
-        public static final double kG = 0;
-        public static final double kV = 0;
-        public static final ArmFeedforward kFF = new ArmFeedforward(kS, kG, kV);
+        public static final double kPositionTolerance = 1; // degrees
+        public static final double kVelocityTolerance = 5; // degrees per second
+        public static final ClosedLoopLocation kClosedLoopLocation = ClosedLoopLocation.ONBOARD;
+
+        // Motion profile, tunable from "/Tuning/Arm".
+        public static final double kMaxVelocity = 180; // degrees per second
+        public static final double kMaxAcceleration = 360; // degrees per second squared
+        public static final TrapezoidProfile.Constraints kConstraints =
+                new TrapezoidProfile.Constraints(kMaxVelocity, kMaxAcceleration);
+
+        // Used until SysId.kGainsFile has a fit.
+        public static final double kS = 0; // volts
+        public static final double kG = 0; // volts
+        public static final double kV = 0; // volts per degree per second
+        // Encoder position when the arm is horizontal, where gravity pulls hardest.
+        public static final double kHorizontalPosition = 0;
 
         public static final double kGearRatio = 1D / 48D;
         public static final double kChainRatio = 10D / 60D;
@@ -89,6 +255,32 @@ public final class Constants {
         public static final double kPositionConversionFactor = kGearRatio * kChainRatio * 360;
         public static final double kVelocityConversionFactor = kPositionConversionFactor / 60D;
 
+        // Hard stops, resting on the intake and just past the amp.
+        public static final double kMinPosition = -95; // degrees
+        public static final double kMaxPosition = 0; // degrees
+
+        // Homing drives down onto the kMaxPosition hard stop until the current spikes with the
+        // arm stopped, sampled every kHomePeriod from a kHomeFrame status frame.
+        public static final double kHomeVoltage = 2;
+        public static final double kHomeCurrent = 10; // amps
+        public static final double kHomeStallVelocity = 5; // degrees per second
+        public static final double kHomeDebounce = .02; // seconds
+        // Samples are ignored this long after homing starts, covering inrush current and the
+        // SparkMax's velocity filter.
+        public static final double kHomeSpinUpTime = .15; // seconds
+        public static final double kHomeTimeout = 2; // seconds
+        public static final double kHomePeriod = .005; // seconds
+        public static final int kHomeFrame = 5; // ms
+        // Anything else pushing this hard without moving for this long is cut off, well before
+        // kCurrentLimit has been held long enough to cook the motors.
+        public static final double kStallCurrent = 40; // amps
+        public static final double kStallVelocity = 2; // degrees per second
+        public static final double kStallTime = .5; // seconds
+
+        // Simulation only, estimates.
+        public static final double kLength = .6; // meters
+        public static final double kMass = 5; // kg
+
         public enum ArmState {
             AMP(-82D),
             SPEAKER(-10D),
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.sendable.SendableRegistry;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+
+/**
+ * Runs the robot in simulation as fast as the CPU allows, with no GUI or driver station. The HAL
+ * clock is paused and stepped a loop at a time, so everything which reads time sees exactly what
+ * it would in real time, the wpilog included.
+ *
+ * <p>{@code ./gradlew simulateHeadless -Pmode=match -Pauto="Shoot no drive"}, mode is "auto" (the
+ * default) or "match", auto is a name from the auto chooser.
+ */
+public final class HeadlessSim {
+    private static final double kAutoSeconds = 15;
+    private static final double kTeleopSeconds = 135;
+
+    private HeadlessSim() {}
+
+    public static void main(String... args) {
+        boolean match = args.length > 0 && args[0].equals("match");
+        String auto = args.length > 1 ? args[1] : "";
+
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+
+        // Nothing here runs in real time, so the log shouldn't drop loops to keep up.
+        MatchLogger.getInstance().setLossless(true);
+        Robot robot = new Robot();
+        Thread robotThread = new Thread(robot::startCompetition, "Robot");
+        robotThread.setDaemon(true);
+        robotThread.start();
+        SimHooks.waitForProgramStart();
+
+        if (!auto.isEmpty()) {
+            // The same topic the dashboard would set.
+            String chooser = "/SmartDashboard/" + SendableRegistry.getName(robot.m_autoChooser);
+            NetworkTableInstance.getDefault()
+                    .getStringTopic(chooser + "/selected")
+                    .publish()
+                    .set(auto);
+            step(false, false, TimedRobot.kDefaultPeriod);
+        }
+
+        long start = System.nanoTime();
+        step(true, true, kAutoSeconds);
+        if (match) {
+            step(false, true, kTeleopSeconds);
+        }
+        double simSeconds = match ? kAutoSeconds + kTeleopSeconds : kAutoSeconds;
+        double wallSeconds = (System.nanoTime() - start) / 1E9;
+        System.out.printf(
+                "Simulated %.0f s in %.3f s, %.0fx real time.%n",
+                simSeconds, wallSeconds, simSeconds / wallSeconds);
+
+        robot.endCompetition();
+        System.exit(0);
+    }
+
+    /** Advance the HAL clock a loop at a time, each step waits for the robot's loop to finish. */
+    private static void step(boolean autonomous, boolean enabled, double seconds) {
+        DriverStationSim.setAutonomous(autonomous);
+        DriverStationSim.setEnabled(enabled);
+        DriverStationSim.notifyNewData();
+        int loops = (int) Math.round(seconds / TimedRobot.kDefaultPeriod);
+        for (int i = 0; i < loops; i++) {
+            SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+        }
+    }
+}
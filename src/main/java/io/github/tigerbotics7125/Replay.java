@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import io.github.tigerbotics7125.tigerLib.LogReplay;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays a match log through the robot code as fast as the CPU allows. Every subsystem gets its
+ * replay IO, so sensor readings come from the log, as do the driver station, the joysticks and
+ * where the arm and shooter closed their loops. The HAL clock is stepped by exactly the time
+ * between the recorded loops, and each loop is run straight from here rather than waiting on the
+ * robot's timer, so a log always replays the same way.
+ *
+ * <p>What the code does with the readings is written to a new log next to the original, with
+ * "_replay" on the end. Outputs are under "/Replay", to compare against what the robot asked for
+ * under "/Outputs", or what it applied under "/Inputs".
+ *
+ * <p>{@code ./gradlew replay -Plog=logs/FRC_20240302_151200_TXHOU_Q12.wpilog}
+ */
+public final class Replay {
+    private Replay() {}
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 1 || args[0].isEmpty()) {
+            System.err.println("Usage: ./gradlew replay -Plog=<path to .wpilog>");
+            System.exit(1);
+        }
+        Path input = Path.of(args[0]).toAbsolutePath();
+
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+        LogReplay replay = LogReplay.load(input);
+
+        MatchLogger logger = MatchLogger.getInstance();
+        logger.setLossless(true);
+        String name = input.getFileName().toString().replaceFirst("\\.wpilog$", "");
+        logger.start(input.getParent().toString(), name + "_replay.wpilog");
+
+        // The same start up as TimedRobot.startCompetition(), without its loop.
+        Robot robot = new Robot();
+        robot.robotInit();
+        // Not simulationInit(), the loops are closed wherever the log says they were.
+
+        long start = System.nanoTime();
+        double first = Double.NaN;
+        double last = Double.NaN;
+        while (replay.next()) {
+            double timestamp = replay.getTimestamp();
+            if (Double.isNaN(first)) {
+                first = timestamp;
+            } else {
+                // Notifiers, like odometry, run as the clock passes them.
+                SimHooks.stepTiming(timestamp - last);
+            }
+            last = timestamp;
+            replay.applyDriverStation();
+            robot.runLoop();
+        }
+        logger.flush();
+
+        double wallSeconds = (System.nanoTime() - start) / 1E9;
+        double logSeconds = last - first;
+        System.out.printf(
+                "Replayed %d loops, %.0f s, in %.3f s, %.0fx real time.%n",
+                replay.getLoopCount(), logSeconds, wallSeconds, logSeconds / wallSeconds);
+        System.exit(0);
+    }
+}
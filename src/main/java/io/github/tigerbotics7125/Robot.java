@@ -6,55 +6,154 @@
 package io.github.tigerbotics7125;
 
 import com.revrobotics.CANSparkBase.IdleMode;
-import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.drive.DifferentialDrive;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Command.InterruptionBehavior;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 import io.github.tigerbotics7125.Constants.Arm.ArmState;
+import io.github.tigerbotics7125.Constants.ClosedLoopLocation;
 import io.github.tigerbotics7125.Constants.DriveTrain.ControlType;
 import io.github.tigerbotics7125.autos.*;
+import io.github.tigerbotics7125.autos.AutoPath.EventMarker;
 import io.github.tigerbotics7125.subsystems.Arm;
+import io.github.tigerbotics7125.subsystems.ArmIO;
+import io.github.tigerbotics7125.subsystems.ArmIOReal;
+import io.github.tigerbotics7125.subsystems.ArmIOReplay;
+import io.github.tigerbotics7125.subsystems.ArmIOSim;
 import io.github.tigerbotics7125.subsystems.Drivetrain;
+import io.github.tigerbotics7125.subsystems.DrivetrainIO;
+import io.github.tigerbotics7125.subsystems.DrivetrainIOReal;
+import io.github.tigerbotics7125.subsystems.DrivetrainIOReplay;
+import io.github.tigerbotics7125.subsystems.DrivetrainIOSim;
 import io.github.tigerbotics7125.subsystems.Intake;
+import io.github.tigerbotics7125.subsystems.IntakeIO;
+import io.github.tigerbotics7125.subsystems.IntakeIOReal;
+import io.github.tigerbotics7125.subsystems.IntakeIOReplay;
+import io.github.tigerbotics7125.subsystems.IntakeIOSim;
+import io.github.tigerbotics7125.subsystems.PoseEstimator;
 import io.github.tigerbotics7125.subsystems.Shooter;
+import io.github.tigerbotics7125.subsystems.ShooterIO;
+import io.github.tigerbotics7125.subsystems.ShooterIOReal;
+import io.github.tigerbotics7125.subsystems.ShooterIOReplay;
+import io.github.tigerbotics7125.subsystems.ShooterIOSim;
+import io.github.tigerbotics7125.tigerLib.CameraManager;
+import io.github.tigerbotics7125.tigerLib.Characterizable;
+import io.github.tigerbotics7125.tigerLib.EnableLatency;
+import io.github.tigerbotics7125.tigerLib.InputShaper;
+import io.github.tigerbotics7125.tigerLib.JitWarmup;
+import io.github.tigerbotics7125.tigerLib.LogReplay;
+import io.github.tigerbotics7125.tigerLib.LoopProfiler;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.PowerManager;
+import io.github.tigerbotics7125.tigerLib.RuntimeHealth;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfigurator;
+import io.github.tigerbotics7125.tigerLib.SparkMaxSim;
+import io.github.tigerbotics7125.tigerLib.Telemetry;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class Robot extends TimedRobot {
+    private static final int kDryRunStickSteps = 50;
+    // values() copies the array on every call.
+    private static final ClosedLoopLocation[] kClosedLoopLocations = ClosedLoopLocation.values();
 
     private CommandXboxController m_driver =
             new CommandXboxController(Constants.HID.kDriverControllerPort);
     private CommandXboxController m_operator =
             new CommandXboxController(Constants.HID.kOperatorControllerPort);
 
-    private Drivetrain m_drivetrain = new Drivetrain();
-    private Intake m_intake = new Intake();
-    private Shooter m_shooter = new Shooter();
-    private Arm m_arm = new Arm();
+    // Kept to step the simulation's physics, see simulationPeriodic().
+    private DrivetrainIO m_drivetrainIO =
+            io(DrivetrainIOReal::new, DrivetrainIOSim::new, DrivetrainIOReplay::new);
+    private IntakeIO m_intakeIO = io(IntakeIOReal::new, IntakeIOSim::new, IntakeIOReplay::new);
+    private ShooterIO m_shooterIO =
+            io(ShooterIOReal::new, ShooterIOSim::new, ShooterIOReplay::new);
+    private ArmIO m_armIO = io(ArmIOReal::new, ArmIOSim::new, ArmIOReplay::new);
+
+    Drivetrain m_drivetrain = new Drivetrain(m_drivetrainIO);
+    PoseEstimator m_poseEstimator = new PoseEstimator(m_drivetrain);
+    Intake m_intake = new Intake(m_intakeIO);
+    Shooter m_shooter = new Shooter(m_shooterIO, this::getSpeakerDistance);
+    Arm m_arm = new Arm(m_armIO);
+
+    private LoopProfiler m_profiler = LoopProfiler.getInstance();
+    private LoopProfiler.Probe m_cameraProbe = m_profiler.probe("CameraManager.update()");
+    private LoopProfiler.Probe m_healthProbe = m_profiler.probe("RuntimeHealth.update()");
+    private LoopProfiler.Probe m_telemetryProbe = m_profiler.probe("Telemetry.update()");
+    private LoopProfiler.Probe m_logProbe = m_profiler.probe("MatchLogger.commit()");
+    private MatchLogger m_logger = MatchLogger.getInstance();
+    private Channel m_redChannel = m_logger.booleanChannel(LogReplay.kRedChannel);
+    private Channel m_closedLoopChannel =
+            m_logger.integerChannel(LogReplay.kClosedLoopLocationChannel);
+    // Where the arm and shooter closed their loops in the replayed log, null if not replaying.
+    private LogReplay.Channel m_replayedClosedLoop =
+            LogReplay.isActive()
+                    ? LogReplay.getInstance().channel(LogReplay.kClosedLoopLocationChannel)
+                    : null;
+    private ClosedLoopLocation m_closedLoopLocation = null;
+    private Translation2d m_speaker = Constants.Field.kBlueSpeaker;
+    private boolean m_red = false;
 
     SendableChooser<Auto> m_autoChooser = new SendableChooser<>();
+    // Built while disabled, for the selected auto and alliance.
+    private Command m_autoCommand = null;
+    private Auto m_builtAuto = null;
+    private boolean m_builtRed = false;
+    private List<AutoPath> m_builtPaths = List.of();
+
+    // Throwaway shapers for the teleop warm-up, so the driver's slew limiters keep their state.
+    private List<InputShaper> m_dryRunShapers = new ArrayList<>();
+    private double m_dryRunStick = 0;
 
     { // instance initializer, look it up.
         m_autoChooser.setDefaultOption("No Auto", new NoAuto());
         m_autoChooser.addOption(
                 "Left shoot then drive",
-                new LeftShootThenDrive(m_drivetrain, m_arm, m_intake, m_shooter));
+                new LeftShootThenDrive(m_arm, m_intake, m_shooter));
         m_autoChooser.addOption(
                 "Right shoot then drive",
-                new RightShootThenDrive(m_drivetrain, m_arm, m_intake, m_shooter));
+                new RightShootThenDrive(m_arm, m_intake, m_shooter));
         m_autoChooser.addOption("Shoot no drive", new ShootNoteNoDrive(m_arm, m_intake, m_shooter));
         SmartDashboard.putData(m_autoChooser);
     }
 
     SendableChooser<Constants.DriveTrain.ControlType> m_driveControlChooser =
             new SendableChooser<>();
+    SendableChooser<ClosedLoopLocation> m_closedLoopChooser = new SendableChooser<>();
+    SendableChooser<Characterizable> m_sysIdChooser = new SendableChooser<>();
+    private Map<ControlType, Command> m_driveCommands = new EnumMap<>(ControlType.class);
+
+    /** Pick a subsystem's IO for where the code is running. */
+    private static <T> T io(Supplier<T> real, Supplier<T> sim, Supplier<T> replay) {
+        if (LogReplay.isActive()) return replay.get();
+        return RobotBase.isReal() ? real.get() : sim.get();
+    }
 
     @Override
     public void robotInit() {
+        // Start recording first, so the rest of boot is captured.
+        m_logger.start();
+        RuntimeHealth.getInstance().start();
 
         m_driveControlChooser.setDefaultOption(
                 ControlType.CURVE_ROCKETLEAGUE.name(), ControlType.CURVE_ROCKETLEAGUE);
@@ -62,65 +161,85 @@ public class Robot extends TimedRobot {
             if (controlType.equals(ControlType.CURVE_ROCKETLEAGUE)) continue;
             m_driveControlChooser.addOption(controlType.name(), controlType);
         }
+        // Sendables are refreshed by the robot loop once they've been put.
+        SmartDashboard.putData("/DT/ControlType", m_driveControlChooser);
+
+        // Compare closing the arm and shooter loops on the roboRIO vs on the SparkMaxes.
+        m_closedLoopChooser.setDefaultOption(
+                ClosedLoopLocation.ONBOARD.name(), ClosedLoopLocation.ONBOARD);
+        m_closedLoopChooser.addOption(
+                ClosedLoopLocation.ROBORIO.name(), ClosedLoopLocation.ROBORIO);
+        setClosedLoopLocation(m_closedLoopChooser.getSelected());
+        m_closedLoopChooser.onChange(this::setClosedLoopLocation);
+        SmartDashboard.putData("/Tuning/ClosedLoop", m_closedLoopChooser);
+
+        // SysId tests, only bound in test mode so they can't be started during a match. Each is
+        // held, releasing stops it.
+        m_sysIdChooser.setDefaultOption("Drivetrain", m_drivetrain);
+        m_sysIdChooser.addOption("Arm", m_arm);
+        m_sysIdChooser.addOption("Shooter", m_shooter);
+        SmartDashboard.putData("/Tuning/SysId", m_sysIdChooser);
+        Trigger test = new Trigger(DriverStation::isTest);
+        m_driver.a()
+                .and(test)
+                .whileTrue(sysIdTest(mech -> mech.sysIdQuasistatic(Direction.kForward)));
+        m_driver.b()
+                .and(test)
+                .whileTrue(sysIdTest(mech -> mech.sysIdQuasistatic(Direction.kReverse)));
+        m_driver.x().and(test).whileTrue(sysIdTest(mech -> mech.sysIdDynamic(Direction.kForward)));
+        m_driver.y().and(test).whileTrue(sysIdTest(mech -> mech.sysIdDynamic(Direction.kReverse)));
+
         new Trigger(RobotController::getUserButton)
                 .onTrue(
                         m_drivetrain
                                 .setIdleMode(IdleMode.kBrake)
-                                .andThen(m_arm.setIdleMode(IdleMode.kBrake)));
-        m_drivetrain.setDefaultCommand(
-                Commands.select(
-                        Map.of(
-                                ControlType.ARCADE,
-                                m_drivetrain.arcadeDrive(
-                                        m_driver::getLeftY, m_driver::getRightX, () -> true),
-                                ControlType.ARCADE_ROCKETLEAGUE,
-                                m_drivetrain.arcadeDrive(
-                                        () ->
-                                                m_driver.getRightTriggerAxis()
-                                                        - m_driver.getLeftTriggerAxis(),
-                                        m_driver::getLeftX,
-                                        () -> true),
-                                ControlType.CURVE,
-                                m_drivetrain.curvatureDrive(
-                                        m_driver::getLeftY, m_driver::getRightX, () -> true),
-                                ControlType.CURVE_ROCKETLEAGUE,
-                                m_drivetrain.curvatureDrive(
-                                        () ->
-                                                m_driver.getRightTriggerAxis()
-                                                        - m_driver.getLeftTriggerAxis(),
-                                        m_driver::getLeftX,
-                                        () -> true)),
-                        m_driveControlChooser::getSelected));
+                                .andThen(m_arm.setIdleMode(IdleMode.kBrake))
+                                .withName("Robot.brake"));
+        // Built once, switching control type only swaps which one is the default. Each shapes its
+        // own axes, expo takes the place of squaring the inputs.
+        DoubleSupplier triggers =
+                () -> m_driver.getRightTriggerAxis() - m_driver.getLeftTriggerAxis();
+        m_driveCommands.put(
+                ControlType.ARCADE,
+                m_drivetrain.arcadeDrive(
+                        new InputShaper(m_driver::getLeftY, ControlType.ARCADE.kThrottle),
+                        new InputShaper(m_driver::getRightX, ControlType.ARCADE.kTurn),
+                        () -> false));
+        m_driveCommands.put(
+                ControlType.ARCADE_ROCKETLEAGUE,
+                m_drivetrain.arcadeDrive(
+                        new InputShaper(triggers, ControlType.ARCADE_ROCKETLEAGUE.kThrottle),
+                        new InputShaper(m_driver::getLeftX, ControlType.ARCADE_ROCKETLEAGUE.kTurn),
+                        () -> false));
+        m_driveCommands.put(
+                ControlType.CURVE,
+                m_drivetrain.curvatureDrive(
+                        new InputShaper(m_driver::getLeftY, ControlType.CURVE.kThrottle),
+                        new InputShaper(m_driver::getRightX, ControlType.CURVE.kTurn),
+                        () -> true));
+        m_driveCommands.put(
+                ControlType.CURVE_ROCKETLEAGUE,
+                m_drivetrain.curvatureDrive(
+                        new InputShaper(triggers, ControlType.CURVE_ROCKETLEAGUE.kThrottle),
+                        new InputShaper(m_driver::getLeftX, ControlType.CURVE_ROCKETLEAGUE.kTurn),
+                        () -> true));
+        m_drivetrain.setDefaultCommand(m_driveCommands.get(m_driveControlChooser.getSelected()));
         m_driveControlChooser.onChange(
-                controlType ->
-                        m_drivetrain.setDefaultCommand(
-                                switch (controlType) {
-                                    case ARCADE -> m_drivetrain.arcadeDrive(
-                                            m_driver::getLeftY, m_driver::getRightX, () -> true);
-                                    case ARCADE_ROCKETLEAGUE -> m_drivetrain.arcadeDrive(
-                                            () ->
-                                                    m_driver.getRightTriggerAxis()
-                                                            - m_driver.getLeftTriggerAxis(),
-                                            m_driver::getLeftX,
-                                            () -> true);
-                                    case CURVE -> m_drivetrain.curvatureDrive(
-                                            m_driver::getLeftY, m_driver::getRightX, () -> true);
-                                    case CURVE_ROCKETLEAGUE -> m_drivetrain.curvatureDrive(
-                                            () ->
-                                                    m_driver.getRightTriggerAxis()
-                                                            - m_driver.getLeftTriggerAxis(),
-                                            m_driver::getLeftX,
-                                            () -> true);
-                                }));
+                controlType -> m_drivetrain.setDefaultCommand(m_driveCommands.get(controlType)));
+
+        for (ControlType controlType : ControlType.values()) {
+            m_dryRunShapers.add(new InputShaper(() -> m_dryRunStick, controlType.kThrottle));
+            m_dryRunShapers.add(new InputShaper(() -> m_dryRunStick, controlType.kTurn));
+        }
 
         m_intake.setDefaultCommand(m_intake.disable());
-        m_shooter.setDefaultCommand(m_shooter.pidControl());
+        m_shooter.setDefaultCommand(m_shooter.idleControl());
         m_arm.setDefaultCommand(m_arm.disable());
 
         m_operator.rightBumper().onTrue(m_intake.intake());
         m_operator.rightBumper().onFalse(m_intake.outtake(m_operator::getRightTriggerAxis));
-        m_operator.leftBumper().onTrue(m_shooter.shootNote(m_intake));
-        m_operator.leftBumper().onFalse(m_shooter.disable());
+        // Releasing cancels the shot, and the shooter goes back to pre-spinning.
+        m_operator.leftBumper().whileTrue(m_shooter.shootNote(m_intake));
         m_operator.y().onTrue(m_arm.pidControl(ArmState.SPEAKER));
         m_operator.x().onTrue(m_arm.pidControl(ArmState.AMP));
         m_operator.b().onTrue(m_arm.pidControl(ArmState.INTAKE));
@@ -128,37 +247,189 @@ public class Robot extends TimedRobot {
         // TODO tell seth this is different.
         m_operator.leftStick().onTrue(m_arm.resetEncoder());
 
-        CameraServer.startAutomaticCapture();
+        CameraManager.getInstance()
+                .start(
+                        Constants.Camera.kDisabled,
+                        Constants.Camera.kAutonomous,
+                        Constants.Camera.kTeleop,
+                        Constants.Camera.kMaxBytesPerSecond);
+
+        m_profiler.install();
+
+        JitWarmup warmup = JitWarmup.getInstance();
+        warmup.add("Teleop", this::dryRunTeleop);
+        warmup.add(
+                "Auto",
+                () -> {
+                    for (AutoPath path : m_builtPaths) {
+                        m_drivetrain.dryRun(path.trajectory());
+                    }
+                });
+        warmup.add("Arm", m_arm::dryRun);
+        warmup.add("Shooter", m_shooter::dryRun);
+
+        // Subsystem constructors only queue their motor configuration, wait for it to finish.
+        SparkMaxConfigurator.getInstance().awaitAll();
+        PowerManager.getInstance()
+                .start(
+                        Constants.Power.kBatteryResistance,
+                        Constants.Power.kMinVoltage,
+                        Constants.Power.kRecoveryRate,
+                        Constants.Power.kPeriodCycles,
+                        Constants.Power.kLimitStep);
+    }
+
+    /** Close the arm and shooter loops on the roboRIO or the SparkMaxes, and log where. */
+    private void setClosedLoopLocation(ClosedLoopLocation location) {
+        m_closedLoopLocation = location;
+        m_shooter.setClosedLoopLocation(location);
+        m_arm.setClosedLoopLocation(location);
+        m_closedLoopChannel.set(location.ordinal());
+    }
+
+    /** @return The test for whichever mechanism is selected when it starts. */
+    private Command sysIdTest(Function<Characterizable, Command> test) {
+        return Commands.deferredProxy(() -> test.apply(m_sysIdChooser.getSelected()))
+                .withName("Robot.sysIdTest");
+    }
+
+    /** @return Meters from our alliance's speaker, NaN until the pose is seeded by an auto. */
+    private double getSpeakerDistance() {
+        if (!m_poseEstimator.isSeeded()) return Double.NaN;
+        return m_poseEstimator.getPose().getTranslation().getDistance(m_speaker);
+    }
+
+    /** DriverStation.getAlliance() allocates, so only check it outside of the enabled loop. */
+    private void updateAlliance() {
+        boolean red = DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red;
+        m_speaker = red ? Constants.Field.kRedSpeaker : Constants.Field.kBlueSpeaker;
+        m_red = red;
+        m_redChannel.set(red);
+    }
+
+    /** Shape and mix a sweep of the sticks like every drive command does, without driving. */
+    private void dryRunTeleop() {
+        for (int i = -kDryRunStickSteps; i <= kDryRunStickSteps; i++) {
+            m_dryRunStick = (double) i / kDryRunStickSteps;
+            for (int s = 0; s < m_dryRunShapers.size(); s += 2) {
+                double throttle = m_dryRunShapers.get(s).getAsDouble();
+                double turn = m_dryRunShapers.get(s + 1).getAsDouble();
+                DifferentialDrive.arcadeDriveIK(throttle, turn, false);
+                DifferentialDrive.curvatureDriveIK(throttle, turn, true);
+            }
+        }
     }
 
     @Override
     public void robotPeriodic() {
+        m_profiler.beginCycle();
+
+        SensorSnapshot.getInstance().refresh();
+        if (m_replayedClosedLoop != null) {
+            // Close the loops where the robot did, which may have changed during the match.
+            ClosedLoopLocation location = kClosedLoopLocations[(int) m_replayedClosedLoop.get()];
+            if (location != m_closedLoopLocation) setClosedLoopLocation(location);
+        }
+        PowerManager.getInstance().update();
         CommandScheduler.getInstance().run();
 
-        SmartDashboard.putData("/DT/ControlType", m_driveControlChooser);
+        m_cameraProbe.start();
+        CameraManager.getInstance().update();
+        m_cameraProbe.stop();
+        m_healthProbe.start();
+        RuntimeHealth.getInstance().update();
+        m_healthProbe.stop();
+        m_telemetryProbe.start();
+        Telemetry.getInstance().update();
+        m_telemetryProbe.stop();
+        m_logProbe.start();
+        m_logger.commit();
+        m_logProbe.stop();
+
+        m_profiler.endCycle();
+    }
+
+    /** Run a single loop straight away, for {@link Replay} which steps the clock itself. */
+    void runLoop() {
+        loopFunc();
     }
 
     @Override
     public void disabledInit() {}
 
     @Override
-    public void disabledPeriodic() {}
+    public void disabledPeriodic() {
+        updateAlliance();
+        // Composing the auto on a cold JVM is slow, do it now rather than once auto has started.
+        if (autoOutOfDate()) buildAuto();
+        JitWarmup.getInstance().run(Constants.Warmup.kPasses, Constants.Warmup.kBudget);
+    }
 
     @Override
     public void autonomousInit() {
+        EnableLatency.getInstance().enabled("Auto");
+        updateAlliance();
+        // Enabled without a disabled loop in between, or the selection changed since.
+        if (autoOutOfDate()) buildAuto();
+        CommandScheduler.getInstance().schedule(m_autoCommand);
+        // Its commands may hold state from this run, compose a fresh one next time.
+        m_autoCommand = null;
+    }
+
+    /** @return True if there's no auto built for the selection and our alliance. */
+    private boolean autoOutOfDate() {
+        return m_autoCommand == null
+                || m_autoChooser.getSelected() != m_builtAuto
+                || m_red != m_builtRed;
+    }
+
+    /** Compose the selected auto for our alliance. */
+    private void buildAuto() {
         Auto auto = m_autoChooser.getSelected();
+        boolean red = m_red;
+        List<AutoPath> paths = new ArrayList<>();
+        for (AutoPath path : auto.getTrajectories()) {
+            paths.add(red ? path.mirrored() : path);
+        }
+
+        // The arm boots on its hard stop, so this is quick, and the auto can trust its position.
+        Command command = m_arm.autoHome().unless(m_arm.isHomed()).andThen(auto.preCommand());
+        if (!paths.isEmpty()) {
+            // Start from where the first path does, so the first shot knows its distance too.
+            Pose2d start = paths.get(0).getInitialPose();
+            command = Commands.runOnce(() -> m_poseEstimator.resetPose(start)).andThen(command);
+        }
+        command = command.andThen(auto.autoCommand().orElseGet(() -> followPaths(auto, paths)));
+        m_autoCommand =
+                command.andThen(auto.postCommand())
+                        .withName("Auto." + auto.getClass().getSimpleName());
+        m_builtAuto = auto;
+        m_builtRed = red;
+        m_builtPaths = paths;
+    }
 
-        auto.autoCommand()
-                .ifPresentOrElse(
-                        cmd ->
-                                CommandScheduler.getInstance()
-                                        .schedule(
-                                                auto.preCommand()
-                                                        .andThen(cmd)
-                                                        .andThen(auto.postCommand())),
-                        () ->
-                                CommandScheduler.getInstance()
-                                        .schedule(Commands.print("PATH PLANNER NOT IMPLEMENTED")));
+    /** Follow each path in turn, starting its events at their markers. */
+    private Command followPaths(Auto auto, List<AutoPath> paths) {
+        List<Command> steps = new ArrayList<>();
+        for (AutoPath path : paths) {
+            // A fresh map for each path, a command can only be composed once.
+            Map<String, Command> events = auto.getEventMap();
+            List<Command> markers = new ArrayList<>();
+            for (EventMarker marker : path.markers()) {
+                Command event = events.get(marker.name());
+                if (event == null) {
+                    DriverStation.reportWarning("No command for event " + marker.name(), false);
+                    continue;
+                }
+                markers.add(Commands.waitSeconds(marker.time()).andThen(event));
+            }
+            steps.add(
+                    Commands.deadline(
+                            m_drivetrain.followTrajectory(
+                                    path.trajectory(), m_poseEstimator::getPose),
+                            markers.toArray(Command[]::new)));
+        }
+        return Commands.sequence(steps.toArray(Command[]::new));
     }
 
     @Override
@@ -166,22 +437,50 @@ public class Robot extends TimedRobot {
 
     @Override
     public void teleopInit() {
+        EnableLatency.getInstance().enabled("Teleop");
+        updateAlliance();
         // Make sure autonomous commands are canceled for teleop
         CommandScheduler.getInstance().cancelAll();
+        if (!m_arm.isHomed().getAsBoolean()) {
+            CommandScheduler.getInstance().schedule(m_arm.autoHome());
+        }
     }
 
     @Override
     public void teleopPeriodic() {}
 
     @Override
-    public void testInit() {}
+    public void testInit() {
+        CommandScheduler.getInstance().cancelAll();
+        // Arm tests stop short of the hard stops, which needs a homed position. Starting a test
+        // while homing is ignored rather than interrupting it.
+        if (!m_arm.isHomed().getAsBoolean()) {
+            CommandScheduler.getInstance()
+                    .schedule(
+                            m_arm.autoHome()
+                                    .withInterruptBehavior(InterruptionBehavior.kCancelIncoming));
+        }
+    }
 
     @Override
     public void testPeriodic() {}
 
     @Override
-    public void simulationInit() {}
+    public void simulationInit() {
+        // REVLib doesn't simulate the SparkMax's own closed loop.
+        setClosedLoopLocation(ClosedLoopLocation.ROBORIO);
+    }
 
     @Override
-    public void simulationPeriodic() {}
+    public void simulationPeriodic() {
+        // Physics steps here, after robotPeriodic(), rather than in each subsystem's
+        // simulationPeriodic() inside CommandScheduler.run(). The loop the tests measure is then
+        // only what the roboRIO runs.
+        m_drivetrainIO.updateSim();
+        m_intakeIO.updateSim();
+        m_shooterIO.updateSim();
+        m_armIO.updateSim();
+        // Once every motor has stepped, so each one's current is known.
+        SparkMaxSim.updateBattery();
+    }
 }
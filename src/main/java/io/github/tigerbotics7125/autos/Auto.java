@@ -7,6 +7,8 @@ package io.github.tigerbotics7125.autos;
 
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface Auto {
@@ -16,14 +18,18 @@ public interface Auto {
         return Commands.none();
     }
 
-    /** @return An Optional containing the auto command, or empty if should be pathplanner. */
+    /** @return An Optional containing the auto command, or empty to follow the trajectories. */
     Optional<Command> autoCommand();
 
-    // TOOD uncomment these as they are part of pathplanner
-
-    // List<PathPlannerTrajectory> getPath();
+    /** @return Paths to follow in order when there's no auto command, for the blue alliance. */
+    default List<AutoPath> getTrajectories() {
+        return List.of();
+    }
 
-    // Map<String, Command> getEventMap();
+    /** @return Commands to run alongside the trajectories, by event marker name. */
+    default Map<String, Command> getEventMap() {
+        return Map.of();
+    }
 
     /** @return The command to run after running this auto. */
     default Command postCommand() {
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.autos;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import io.github.tigerbotics7125.Constants;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A trajectory and the events along it, generated at build time by the trajgen source set and
+ * deployed as a binary file, so no splines are generated on the roboRIO. Paths are generated for
+ * the blue alliance, {@link #mirrored()} gives the red one.
+ *
+ * <p>The file is a magic number and version, the state count, then each state as 7 doubles (time,
+ * velocity, acceleration, x, y, heading radians, curvature), then the marker count and each marker
+ * as its time followed by its UTF-8 name prefixed by its length.
+ */
+public record AutoPath(Trajectory trajectory, List<EventMarker> markers) {
+    public static final String kDirectory = "trajectories";
+    public static final String kExtension = ".traj";
+
+    private static final int kMagic = 0x54524A31; // "TRJ1"
+    private static final int kVersion = 1;
+    private static final int kStateDoubles = 7;
+
+    /** A named event, seconds from the start of the path. */
+    public record EventMarker(double time, String name) {}
+
+    /**
+     * Load a path from the deploy directory. Autos load theirs while the robot is constructed, so
+     * a bad deploy is reported rather than thrown.
+     *
+     * @return Empty if the file is missing or isn't a path this code can read.
+     */
+    public static Optional<AutoPath> load(String name) {
+        Path path =
+                Filesystem.getDeployDirectory()
+                        .toPath()
+                        .resolve(kDirectory)
+                        .resolve(name + kExtension);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(read(buffer));
+        } catch (IOException | RuntimeException e) {
+            DriverStation.reportError(
+                    "Failed to load trajectory " + path + ", the auto won't drive: " + e, false);
+            return Optional.empty();
+        }
+    }
+
+    private static AutoPath read(ByteBuffer buffer) {
+        if (buffer.getInt() != kMagic || buffer.getInt() != kVersion) {
+            throw new IllegalStateException("Not a version " + kVersion + " trajectory file");
+        }
+        int stateCount = buffer.getInt();
+        List<Trajectory.State> states = new ArrayList<>(stateCount);
+        for (int i = 0; i < stateCount; i++) {
+            double time = buffer.getDouble();
+            double velocity = buffer.getDouble();
+            double acceleration = buffer.getDouble();
+            Pose2d pose =
+                    new Pose2d(
+                            buffer.getDouble(),
+                            buffer.getDouble(),
+                            new Rotation2d(buffer.getDouble()));
+            double curvature = buffer.getDouble();
+            states.add(new Trajectory.State(time, velocity, acceleration, pose, curvature));
+        }
+
+        int markerCount = buffer.getInt();
+        List<EventMarker> markers = new ArrayList<>(markerCount);
+        for (int i = 0; i < markerCount; i++) {
+            double time = buffer.getDouble();
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            markers.add(new EventMarker(time, new String(name, StandardCharsets.UTF_8)));
+        }
+        return new AutoPath(new Trajectory(states), List.copyOf(markers));
+    }
+
+    /** Write a path, used by the trajgen build step. */
+    public void write(Path file) throws IOException {
+        List<Trajectory.State> states = trajectory.getStates();
+        int size = 3 * Integer.BYTES + states.size() * kStateDoubles * Double.BYTES + Integer.BYTES;
+        List<byte[]> names = new ArrayList<>();
+        for (EventMarker marker : markers) {
+            byte[] name = marker.name().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += Double.BYTES + Short.BYTES + name.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(kMagic).putInt(kVersion).putInt(states.size());
+        for (Trajectory.State state : states) {
+            buffer.putDouble(state.timeSeconds)
+                    .putDouble(state.velocityMetersPerSecond)
+                    .putDouble(state.accelerationMetersPerSecondSq)
+                    .putDouble(state.poseMeters.getX())
+                    .putDouble(state.poseMeters.getY())
+                    .putDouble(state.poseMeters.getRotation().getRadians())
+                    .putDouble(state.curvatureRadPerMeter);
+        }
+        buffer.putInt(markers.size());
+        for (int i = 0; i < markers.size(); i++) {
+            buffer.putDouble(markers.get(i).time()).putShort((short) names.get(i).length);
+            buffer.put(names.get(i));
+        }
+        Files.write(file, buffer.array());
+    }
+
+    /** @return This path mirrored across the center line, for the red alliance. */
+    public AutoPath mirrored() {
+        List<Trajectory.State> states = new ArrayList<>();
+        for (Trajectory.State state : trajectory.getStates()) {
+            Pose2d pose = state.poseMeters;
+            states.add(
+                    new Trajectory.State(
+                            state.timeSeconds,
+                            state.velocityMetersPerSecond,
+                            state.accelerationMetersPerSecondSq,
+                            new Pose2d(
+                                    Constants.Field.kLength - pose.getX(),
+                                    pose.getY(),
+                                    new Rotation2d(Math.PI).minus(pose.getRotation())),
+                            -state.curvatureRadPerMeter));
+        }
+        return new AutoPath(new Trajectory(states), markers);
+    }
+
+    public Pose2d getInitialPose() {
+        return trajectory.getInitialPose();
+    }
+}
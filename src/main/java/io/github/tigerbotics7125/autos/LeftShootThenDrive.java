@@ -9,50 +9,51 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import io.github.tigerbotics7125.Constants.Arm.ArmState;
 import io.github.tigerbotics7125.subsystems.Arm;
-import io.github.tigerbotics7125.subsystems.Drivetrain;
 import io.github.tigerbotics7125.subsystems.Intake;
 import io.github.tigerbotics7125.subsystems.Shooter;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class LeftShootThenDrive implements Auto {
 
-    private Drivetrain m_drivetrain;
     private Arm m_arm;
     private Intake m_intake;
     private Shooter m_shooter;
+    // Loaded at boot, generated at build time by trajgen. Without it the auto only shoots.
+    private List<AutoPath> m_trajectories =
+            AutoPath.load("LeftShootThenDrive").stream().toList();
 
-    public LeftShootThenDrive(Drivetrain drivetrain, Arm arm, Intake intake, Shooter shooter) {
-        m_drivetrain = drivetrain;
+    public LeftShootThenDrive(Arm arm, Intake intake, Shooter shooter) {
         m_arm = arm;
         m_intake = intake;
         m_shooter = shooter;
     }
 
+    @Override
+    public Command preCommand() {
+        // Lower arm, then shoot note.
+        return Commands.sequence(
+                        m_arm.pidControl(ArmState.SPEAKERAUTO).until(m_arm.atState()),
+                        m_shooter.shootNote(m_intake))
+                .withTimeout(5);
+    }
+
     @Override
     public Optional<Command> autoCommand() {
-        Command cmd =
-                // Lower arm, then shoot note.
-                // TODO arm.atState doesn't have a tolerance, may never return true atm.
-                Commands.sequence(
-                                m_arm.pidControl(ArmState.SPEAKERAUTO).until(m_arm.atState()),
-                                m_shooter.shootNote(m_intake))
-                        .withTimeout(5)
-                        // Drive backwards for 1 second.
-                        .andThen(
-                                m_drivetrain
-                                        .arcadeDrive(() -> -.5, () -> 0, () -> false)
-                                        .withTimeout(1))
-                        // Turn left for 2 seconds.
-                        .andThen(
-                                m_drivetrain
-                                        .arcadeDrive(() -> -.5, () -> .5, () -> false)
-                                        .withTimeout(2))
-                        // Drive backwards for 2 seconds.
-                        .andThen(
-                                m_drivetrain
-                                        .arcadeDrive(() -> -.5, () -> 0, () -> false)
-                                        .withTimeout(2));
-
-        return Optional.of(cmd);
+        return Optional.empty();
+    }
+
+    /** Back away from the speaker, turning left, and pick up the wing note. */
+    @Override
+    public List<AutoPath> getTrajectories() {
+        return m_trajectories;
+    }
+
+    @Override
+    public Map<String, Command> getEventMap() {
+        return Map.of(
+                "stow", m_arm.pidControl(ArmState.INTAKE),
+                "intake", m_intake.intake());
     }
 }
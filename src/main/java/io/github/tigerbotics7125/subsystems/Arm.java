@@ -6,103 +6,405 @@
 package io.github.tigerbotics7125.subsystems;
 
 import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.RelativeEncoder;
 import edu.wpi.first.math.controller.ArmFeedforward;
-import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import io.github.tigerbotics7125.Constants;
 import io.github.tigerbotics7125.Constants.Arm.ArmState;
+import io.github.tigerbotics7125.Constants.ClosedLoopLocation;
+import io.github.tigerbotics7125.tigerLib.Characterizable;
+import io.github.tigerbotics7125.tigerLib.GainsFile;
+import io.github.tigerbotics7125.tigerLib.JitWarmup;
+import io.github.tigerbotics7125.tigerLib.LoopProfiler;
+import io.github.tigerbotics7125.tigerLib.PowerManager;
+import io.github.tigerbotics7125.tigerLib.PowerManager.Priority;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.SysIdLog;
+import io.github.tigerbotics7125.tigerLib.Telemetry;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.StringSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
 import java.util.function.DoubleSupplier;
 
-// TODO consider using ProfiledPIDController instead for smoother motion.
-
 // TODO consider using positionconversionfactor to make units of arm rotation as opposed to motor
 // rotations
 
-public class Arm extends SubsystemBase {
+public class Arm extends SubsystemBase implements Characterizable {
+    private static final ArmState[] kDryRunGoals = {ArmState.AMP, ArmState.INTAKE};
+    private static final int kDryRunLoops = 500; // Longer than any profile takes.
 
-    private CANSparkMax m_left = new CANSparkMax(Constants.Arm.kLeftID, Constants.Arm.kMotorType);
-    private CANSparkMax m_right = new CANSparkMax(Constants.Arm.kRightID, Constants.Arm.kMotorType);
+    private final ArmIO m_io;
+    private final SparkMaxInputs m_leftInputs;
 
-    private RelativeEncoder m_encoder = m_left.getEncoder();
+    private ProfiledPIDController m_controller =
+            new ProfiledPIDController(
+                    Constants.Arm.kP,
+                    Constants.Arm.kI,
+                    Constants.Arm.kD,
+                    Constants.Arm.kConstraints);
+    private final GainsFile m_gains = new GainsFile(Constants.SysId.kGainsFile, "arm");
+    private ArmFeedforward m_feedforward =
+            new ArmFeedforward(
+                    m_gains.get("kS", Constants.Arm.kS),
+                    m_gains.get("kG", Constants.Arm.kG),
+                    m_gains.get("kV", Constants.Arm.kV));
+    private ProfiledPIDController m_dryRunController =
+            new ProfiledPIDController(
+                    Constants.Arm.kP,
+                    Constants.Arm.kI,
+                    Constants.Arm.kD,
+                    Constants.Arm.kConstraints);
+    private ClosedLoopLocation m_closedLoopLocation = Constants.Arm.kClosedLoopLocation;
 
-    private PIDController m_PID = Constants.Arm.kPID;
-    private ArmFeedforward m_feedforward = Constants.Arm.kFF;
+    // The arm boots resting at the intake position.
+    private ArmState m_state = ArmState.INTAKE;
+    private ArmState m_settleFrom = ArmState.INTAKE;
+    private double m_settleStart = Double.NaN;
+    private final Trigger m_atGoal = new Trigger(this::atGoal);
 
-    public Arm() {
-        configureMotor(m_left);
-        configureMotor(m_right);
-        m_right.follow(m_left, Constants.Arm.kFollowerInverted);
+    // Homing samples on its own thread, much faster than the robot loop.
+    private final Notifier m_homeSampler = new Notifier(this::sampleHome);
+    private final Debouncer m_homeSpunUp =
+            new Debouncer(Constants.Arm.kHomeSpinUpTime, DebounceType.kRising);
+    private final Debouncer m_homeStall =
+            new Debouncer(Constants.Arm.kHomeDebounce, DebounceType.kRising);
+    private volatile boolean m_atHardStop = false;
+    private double m_homeStart = Double.NaN;
+    private boolean m_homed = false;
+    private final Trigger m_isHomed = new Trigger(() -> m_homed);
 
-        m_encoder.setPositionConversionFactor(Constants.Arm.kPositionConversionFactor);
-        m_encoder.setVelocityConversionFactor(Constants.Arm.kVelocityConversionFactor);
-        m_encoder.setPosition(0);
-    }
+    private final Debouncer m_stall = new Debouncer(Constants.Arm.kStallTime, DebounceType.kRising);
+    private boolean m_stalled = false;
+    private int m_stallEvents = 0;
+    // The command which was running when a stall cut the output, which stays cut until another.
+    private boolean m_cut = false;
+    private Command m_cutCommand = null;
+
+    private DoubleEntry m_maxVelocity =
+            NetworkTableInstance.getDefault()
+                    .getDoubleTopic("/Tuning/Arm/MaxVelocity")
+                    .getEntry(Constants.Arm.kMaxVelocity);
+    private DoubleEntry m_maxAcceleration =
+            NetworkTableInstance.getDefault()
+                    .getDoubleTopic("/Tuning/Arm/MaxAcceleration")
+                    .getEntry(Constants.Arm.kMaxAcceleration);
+
+    private final SysIdLog m_sysIdLog = new SysIdLog("arm", "Left");
+    private final SysIdRoutine m_sysId =
+            new SysIdRoutine(
+                    new SysIdRoutine.Config(
+                            Units.Volts.per(Units.Second).of(Constants.SysId.kArmRampRate),
+                            Units.Volts.of(Constants.SysId.kArmStep),
+                            null,
+                            m_sysIdLog::recordState),
+                    new SysIdRoutine.Mechanism(
+                            volts -> setVolts(volts.in(Units.Volts)), log -> recordSysId(), this));
+
+    private final LoopProfiler.Probe m_periodicProbe =
+            LoopProfiler.getInstance().probe(getName() + ".periodic()");
+    private final DoubleSignal m_positionSignal =
+            Telemetry.getInstance().doubleSignal("/Arm/Position", Tier.CRITICAL);
+    private final DoubleSignal m_setpointSignal =
+            Telemetry.getInstance().doubleSignal("/Arm/Setpoint", Tier.CRITICAL);
+    private final DoubleSignal m_goalSignal =
+            Telemetry.getInstance().doubleSignal("/Arm/Goal", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_settleSignal =
+            Telemetry.getInstance().doubleSignal("/Arm/SettleSeconds", Tier.DIAGNOSTIC);
+    // Indexed [from][to] by ArmState ordinal.
+    private final DoubleSignal[][] m_transitionSignals =
+            new DoubleSignal[ArmState.values().length][ArmState.values().length];
+    private final StringSignal m_closedLoopSignal =
+            Telemetry.getInstance().stringSignal("/Arm/ClosedLoop", Tier.STATIC);
+    private final DoubleSignal m_homeSignal =
+            Telemetry.getInstance().doubleSignal("/Arm/HomeSeconds", Tier.DIAGNOSTIC);
+    private final IntegerSignal m_stallSignal =
+            Telemetry.getInstance().integerSignal("/Arm/StallEvents", Tier.CRITICAL);
+
+    public Arm(ArmIO io) {
+        m_io = io;
+        m_leftInputs = io.getLeaderInputs();
 
-    private void configureMotor(CANSparkMax motor) {
-        motor.restoreFactoryDefaults();
-        Timer.delay(.02);
+        PowerManager.getInstance()
+                .register(
+                        "Arm",
+                        Priority.CRITICAL,
+                        Constants.Arm.kMinCurrentLimit,
+                        Constants.Arm.kCurrentLimit,
+                        m_leftInputs,
+                        io.getFollowerInputs());
 
-        motor.setSmartCurrentLimit(Constants.Arm.kCurrentLimit);
-        motor.setIdleMode(IdleMode.kCoast);
-        motor.burnFlash();
-        Timer.delay(.02);
+        m_controller.setTolerance(
+                Constants.Arm.kPositionTolerance, Constants.Arm.kVelocityTolerance);
+        m_maxVelocity.set(Constants.Arm.kMaxVelocity);
+        m_maxAcceleration.set(Constants.Arm.kMaxAcceleration);
+
+        for (ArmState from : ArmState.values()) {
+            for (ArmState to : ArmState.values()) {
+                m_transitionSignals[from.ordinal()][to.ordinal()] =
+                        Telemetry.getInstance()
+                                .doubleSignal(
+                                        "/Arm/Settle/" + from.name() + "_TO_" + to.name(),
+                                        Tier.STATIC);
+            }
+        }
     }
 
     public Command disable() {
-        return run(m_left::stopMotor);
+        return run(m_io::stop).withName("Arm.disable");
     }
 
     public Command voltageControl(DoubleSupplier input) {
-        return run(() -> m_left.setVoltage(input.getAsDouble()));
+        return run(() -> setVolts(input.getAsDouble())).withName("Arm.voltageControl");
     }
 
+    /** Follow a motion profile to the state, holding it once there. */
     public Command pidControl(ArmState state) {
-        return runOnce(() -> m_PID.setSetpoint(state.kPosition))
-                .andThen(
-                        run(
-                                () -> {
-                                    double pidContribution =
-                                            12D * m_PID.calculate(m_encoder.getPosition());
-                                    // double ffContribution =
-                                    //         m_feedforward.calculate(m_PID.getSetpoint(), 0);
-                                    m_left.setVoltage(pidContribution); // + ffContribution);
-                                }));
+        return runOnce(() -> setGoal(state))
+                .andThen(run(this::closedLoop))
+                .withName("Arm.pidControl");
+    }
+
+    private void setGoal(ArmState state) {
+        if (state != m_state) {
+            m_settleFrom = m_state;
+            m_settleStart = Timer.getFPGATimestamp();
+        }
+        m_state = state;
+
+        m_controller.setConstraints(
+                new TrapezoidProfile.Constraints(m_maxVelocity.get(), m_maxAcceleration.get()));
+        // Profile from where the arm actually is, not the last setpoint.
+        m_controller.reset(m_leftInputs.getPosition(), m_leftInputs.getVelocity());
+        m_controller.setGoal(state.kPosition);
+    }
+
+    private void closedLoop() {
+        if (outputCut()) return;
+        double pidOutput = m_controller.calculate(m_leftInputs.getPosition());
+        TrapezoidProfile.State setpoint = m_controller.getSetpoint();
+        double ffVolts =
+                m_feedforward.calculate(
+                        Math.toRadians(setpoint.position - Constants.Arm.kHorizontalPosition),
+                        setpoint.velocity);
+
+        switch (m_closedLoopLocation) {
+            case ROBORIO -> m_io.set(pidOutput + ffVolts / Constants.Power.kNominalVoltage);
+            // The profile is still stepped here, the SparkMax tracks each setpoint at 1 kHz.
+            case ONBOARD -> m_io.setPosition(setpoint.position, ffVolts);
+        }
+    }
+
+    /**
+     * Profile from the intake to the amp and back with a throwaway controller, without moving, for
+     * the {@link JitWarmup}. The arm is taken to track every setpoint perfectly.
+     */
+    public void dryRun() {
+        for (ArmState goal : kDryRunGoals) {
+            m_dryRunController.setGoal(goal.kPosition);
+            for (int i = 0; i < kDryRunLoops && !m_dryRunController.atGoal(); i++) {
+                m_dryRunController.calculate(m_dryRunController.getSetpoint().position);
+                TrapezoidProfile.State setpoint = m_dryRunController.getSetpoint();
+                m_feedforward.calculate(
+                        Math.toRadians(setpoint.position - Constants.Arm.kHorizontalPosition),
+                        setpoint.velocity);
+            }
+        }
+    }
+
+    /**
+     * The leader is voltage compensated, so this is a fraction of the nominal voltage. setVoltage()
+     * would compensate a second time.
+     */
+    private void setVolts(double volts) {
+        if (outputCut()) return;
+        m_io.set(volts / Constants.Power.kNominalVoltage);
+    }
+
+    /**
+     * Only the arm stops on a stall, its command keeps running so an auto built around it carries
+     * on. A new command for the arm drives it again.
+     *
+     * @return True if the output is cut, and has been stopped.
+     */
+    private boolean outputCut() {
+        if (m_cut && getCurrentCommand() != m_cutCommand) m_cut = false;
+        if (m_cut) m_io.stop();
+        return m_cut;
+    }
+
+    /** Uses the measured error, so it works the same with either closed loop location. */
+    private boolean atGoal() {
+        return Math.abs(m_state.kPosition - m_leftInputs.getPosition())
+                        <= Constants.Arm.kPositionTolerance
+                && Math.abs(m_leftInputs.getVelocity()) <= Constants.Arm.kVelocityTolerance;
+    }
+
+    /** Switch between closing the position loop on the roboRIO and on the SparkMax. */
+    public void setClosedLoopLocation(ClosedLoopLocation location) {
+        m_closedLoopLocation = location;
+        m_controller.reset(m_leftInputs.getPosition(), m_leftInputs.getVelocity());
     }
 
     public Command resetEncoder() {
-        return runOnce(() -> m_encoder.setPosition(0));
+        return runOnce(() -> m_io.setEncoderPosition(0)).withName("Arm.resetEncoder");
     }
 
+    /**
+     * Drive down onto the hard stop and zero the encoder there. The hard stop is found from the
+     * current spiking with the arm stopped, sampled every kHomePeriod so the arm is stopped as soon
+     * as it lands.
+     */
     public Command autoHome() {
-        // TODO make a command using current detection to stop the arm at the bottom and redefine
-        // the position as 0 (or whatever angle it should be).
-        // You could (should) also be checking the current spike in periodic and stopping the motors
-        // if something is awry.
-        return Commands.none();
+        return new FunctionalCommand(
+                        this::startHoming,
+                        this::driveToHardStop,
+                        this::finishHoming,
+                        () ->
+                                m_atHardStop
+                                        || Timer.getFPGATimestamp() - m_homeStart
+                                                >= Constants.Arm.kHomeTimeout,
+                        this)
+                .withName("Arm.autoHome");
+    }
+
+    /** @return True once the encoder has been zeroed on the hard stop. */
+    public Trigger isHomed() {
+        return m_isHomed;
+    }
+
+    private void startHoming() {
+        m_homeStart = Timer.getFPGATimestamp();
+        m_atHardStop = false;
+        // Resets the debounce timers, before the sampler is running.
+        m_homeSpunUp.calculate(false);
+        m_homeStall.calculate(false);
+        m_io.setFastStatus(true);
+        m_homeSampler.startPeriodic(Constants.Arm.kHomePeriod);
+    }
+
+    private void driveToHardStop() {
+        // The sampler may have stopped the motor since the last loop.
+        if (!m_atHardStop) setVolts(Constants.Arm.kHomeVoltage);
+    }
+
+    /** Runs on the sampler thread. */
+    private void sampleHome() {
+        // Starting from rest looks like a stall, inrush current before the arm moves and a
+        // filtered velocity that lags behind it, only trust samples once it has had time to move.
+        boolean spunUp = m_homeSpunUp.calculate(true);
+        boolean stalled =
+                spunUp
+                        && m_io.readCurrent() >= Constants.Arm.kHomeCurrent
+                        && Math.abs(m_io.readVelocity()) <= Constants.Arm.kHomeStallVelocity;
+        if (!m_atHardStop && m_homeStall.calculate(stalled)) {
+            m_io.stop();
+            m_atHardStop = true;
+        }
+    }
+
+    private void finishHoming(boolean interrupted) {
+        m_homeSampler.stop();
+        m_io.stop();
+        m_io.setFastStatus(false);
+        if (!m_atHardStop) {
+            DriverStation.reportWarning("Arm homing didn't find the hard stop", false);
+            return;
+        }
+        m_io.setEncoderPosition(Constants.Arm.kMaxPosition);
+        m_homed = true;
+        m_state = ArmState.INTAKE;
+        m_controller.reset(Constants.Arm.kMaxPosition);
+        m_homeSignal.set(Timer.getFPGATimestamp() - m_homeStart);
     }
 
     public Command setIdleMode(IdleMode idleMode) {
-        return runOnce(
-                        () -> {
-                            m_left.setIdleMode(idleMode);
-                            m_right.setIdleMode(idleMode);
-                        })
-                .ignoringDisable(true);
+        return runOnce(() -> m_io.setIdleMode(idleMode))
+                .ignoringDisable(true)
+                .withName("Arm.setIdleMode");
+    }
+
+    /**
+     * Positive volts drive towards kMaxPosition, each test stops short of the hard stop. Does
+     * nothing until homed, before then the position isn't measured from anywhere.
+     */
+    @Override
+    public Command sysIdQuasistatic(Direction direction) {
+        return m_sysId.quasistatic(direction)
+                .until(() -> nearHardStop(direction))
+                .onlyIf(m_isHomed)
+                .withName("Arm.sysIdQuasistatic");
+    }
+
+    @Override
+    public Command sysIdDynamic(Direction direction) {
+        return m_sysId.dynamic(direction)
+                .until(() -> nearHardStop(direction))
+                .onlyIf(m_isHomed)
+                .withName("Arm.sysIdDynamic");
+    }
+
+    private boolean nearHardStop(Direction direction) {
+        double position = m_leftInputs.getPosition();
+        return direction == Direction.kForward
+                ? position >= Constants.Arm.kMaxPosition - Constants.SysId.kArmMargin
+                : position <= Constants.Arm.kMinPosition + Constants.SysId.kArmMargin;
+    }
+
+    /** Degrees from horizontal, which the feedforward's gravity term is fitted against. */
+    private void recordSysId() {
+        m_sysIdLog.record(
+                0,
+                m_leftInputs.getAppliedOutput() * m_leftInputs.getBusVoltage(),
+                m_leftInputs.getPosition() - Constants.Arm.kHorizontalPosition,
+                m_leftInputs.getVelocity());
     }
 
+    /** @return True once the arm is within tolerance of its goal and has stopped moving. */
     public Trigger atState() {
-        return new Trigger(m_PID::atSetpoint);
+        return m_atGoal;
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("arm", m_encoder.getPosition());
+        m_periodicProbe.start();
+        // Pushing hard without moving, cut the output before the motors cook.
+        boolean stalled =
+                m_leftInputs.getOutputCurrent() >= Constants.Arm.kStallCurrent
+                        && Math.abs(m_leftInputs.getVelocity()) <= Constants.Arm.kStallVelocity;
+        boolean debounced = m_stall.calculate(stalled);
+        if (debounced && !m_stalled) {
+            m_stallSignal.set(++m_stallEvents);
+            DriverStation.reportWarning("Arm stalled, cutting output", false);
+            m_cut = true;
+            m_cutCommand = getCurrentCommand();
+            m_io.stop();
+        }
+        m_stalled = debounced;
+        if (!Double.isNaN(m_settleStart) && atGoal()) {
+            double settleTime = Timer.getFPGATimestamp() - m_settleStart;
+            m_settleSignal.set(settleTime);
+            m_transitionSignals[m_settleFrom.ordinal()][m_state.ordinal()].set(settleTime);
+            m_settleStart = Double.NaN;
+        }
+        m_positionSignal.set(m_leftInputs.getPosition());
+        m_setpointSignal.set(m_controller.getSetpoint().position);
+        m_goalSignal.set(m_state.kPosition);
+        m_closedLoopSignal.set(m_closedLoopLocation.name());
+        m_periodicProbe.stop();
     }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/** The arm's hardware, two motors with the right following the left, which has the encoder. */
+public interface ArmIO {
+    /** The leader, its encoder reads the arm in degrees. */
+    SparkMaxInputs getLeaderInputs();
+
+    SparkMaxInputs getFollowerInputs();
+
+    /** @param output Fraction of the nominal voltage. */
+    void set(double output);
+
+    /** Close the position loop on the leader, with a feedforward in volts. */
+    void setPosition(double position, double ffVolts);
+
+    void stop();
+
+    void setEncoderPosition(double position);
+
+    void setIdleMode(IdleMode idleMode);
+
+    /** Send the leader's current and velocity faster than usual, for homing. */
+    void setFastStatus(boolean fast);
+
+    /** @return Amps, straight from the leader, for sampling faster than the loop. */
+    double readCurrent();
+
+    /** @return Degrees per second, straight from the leader, for sampling faster than the loop. */
+    double readVelocity();
+
+    /** Advance the physics a loop, only the sim has any. */
+    default void updateSim() {}
+}
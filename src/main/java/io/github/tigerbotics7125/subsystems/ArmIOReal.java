@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfig;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfigurator;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.SparkMaxOutput;
+
+public class ArmIOReal implements ArmIO {
+    protected final CANSparkMax m_left =
+            new CANSparkMax(Constants.Arm.kLeftID, Constants.Arm.kMotorType);
+    private final CANSparkMax m_right =
+            new CANSparkMax(Constants.Arm.kRightID, Constants.Arm.kMotorType);
+    private final RelativeEncoder m_encoder = m_left.getEncoder();
+    private final SparkMaxOutput m_output =
+            new SparkMaxOutput(
+                    "Arm/Left",
+                    m_left,
+                    Constants.CAN.kKeepAlivePeriod,
+                    Constants.CAN.kOutputTolerance);
+    // The setpoints asked for, which a replay's "/Replay/Arm" should match.
+    private final Channel m_outputChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/Arm/Output");
+    private final Channel m_positionChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/Arm/Position");
+    private final Channel m_ffChannel = MatchLogger.getInstance().doubleChannel("/Outputs/Arm/FF");
+
+    private final SparkMaxInputs m_leftInputs =
+            SensorSnapshot.getInstance().sparkMaxWithEncoder("Arm/Left", m_left);
+    private final SparkMaxInputs m_rightInputs =
+            SensorSnapshot.getInstance().sparkMax("Arm/Right", m_right);
+
+    public ArmIOReal() {
+        SparkMaxConfigurator configurator = SparkMaxConfigurator.getInstance();
+        configurator.configure(
+                "Arm/Left",
+                m_left,
+                baseConfig()
+                        .statusFrames(
+                                Constants.CAN.kFastFrame,
+                                Constants.CAN.kDefaultFrame,
+                                Constants.CAN.kDefaultFrame)
+                        .pid(Constants.Arm.kP, Constants.Arm.kI, Constants.Arm.kD, 0)
+                        .conversionFactors(
+                                Constants.Arm.kPositionConversionFactor,
+                                Constants.Arm.kVelocityConversionFactor)
+                        .voltageCompensation(Constants.Power.kNominalVoltage)
+                        .initialPosition(0));
+        configurator.configure(
+                "Arm/Right",
+                m_right,
+                baseConfig()
+                        // Duty cycle and current, for PowerManager's battery current.
+                        .statusFrames(
+                                Constants.CAN.kDefaultFrame,
+                                Constants.CAN.kDefaultFrame,
+                                Constants.CAN.kSlowFrame)
+                        .follow(m_left, Constants.Arm.kFollowerInverted));
+    }
+
+    private SparkMaxConfig baseConfig() {
+        return new SparkMaxConfig()
+                .currentLimit(Constants.Arm.kCurrentLimit)
+                .idleMode(IdleMode.kCoast);
+    }
+
+    @Override
+    public SparkMaxInputs getLeaderInputs() {
+        return m_leftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getFollowerInputs() {
+        return m_rightInputs;
+    }
+
+    @Override
+    public void set(double output) {
+        // Voltage compensated, setVoltage() would compensate a second time.
+        m_output.set(output);
+        m_outputChannel.set(output);
+    }
+
+    @Override
+    public void setPosition(double position, double ffVolts) {
+        m_output.setReference(position, ControlType.kPosition, ffVolts);
+        m_positionChannel.set(position);
+        m_ffChannel.set(ffVolts);
+    }
+
+    @Override
+    public void stop() {
+        set(0);
+    }
+
+    @Override
+    public void setEncoderPosition(double position) {
+        m_encoder.setPosition(position);
+    }
+
+    @Override
+    public void setIdleMode(IdleMode idleMode) {
+        m_left.setIdleMode(idleMode);
+        m_right.setIdleMode(idleMode);
+    }
+
+    @Override
+    public void setFastStatus(boolean fast) {
+        m_left.setPeriodicFramePeriod(
+                PeriodicFrame.kStatus1,
+                fast ? Constants.Arm.kHomeFrame : Constants.CAN.kDefaultFrame);
+    }
+
+    @Override
+    public double readCurrent() {
+        return m_left.getOutputCurrent();
+    }
+
+    @Override
+    public double readVelocity() {
+        return m_encoder.getVelocity();
+    }
+}
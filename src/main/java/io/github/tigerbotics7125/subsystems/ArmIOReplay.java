@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import io.github.tigerbotics7125.tigerLib.LogReplay;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/**
+ * Readings from the replayed log, outputs are only recorded under "/Replay/Arm". Nothing faster
+ * than the loop was logged, so homing samples the loop's readings.
+ */
+public class ArmIOReplay implements ArmIO {
+    private final SparkMaxInputs m_leftInputs =
+            SensorSnapshot.getInstance().replayed("Arm/Left", true);
+    private final SparkMaxInputs m_rightInputs =
+            SensorSnapshot.getInstance().replayed("Arm/Right", false);
+    // Read by the homing sampler between loops, before the snapshot is refreshed.
+    private final LogReplay.Channel m_current =
+            LogReplay.getInstance().channel("/Inputs/Arm/Left/OutputCurrent");
+    private final LogReplay.Channel m_velocity =
+            LogReplay.getInstance().channel("/Inputs/Arm/Left/Velocity");
+
+    private final Channel m_outputChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/Arm/Output");
+    private final Channel m_positionChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/Arm/Position");
+    private final Channel m_ffChannel = MatchLogger.getInstance().doubleChannel("/Replay/Arm/FF");
+
+    @Override
+    public SparkMaxInputs getLeaderInputs() {
+        return m_leftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getFollowerInputs() {
+        return m_rightInputs;
+    }
+
+    @Override
+    public void set(double output) {
+        m_outputChannel.set(output);
+    }
+
+    @Override
+    public void setPosition(double position, double ffVolts) {
+        m_positionChannel.set(position);
+        m_ffChannel.set(ffVolts);
+    }
+
+    @Override
+    public void stop() {
+        set(0);
+    }
+
+    @Override
+    public void setEncoderPosition(double position) {
+        // The replayed encoder reads what the robot's did, including its resets.
+    }
+
+    @Override
+    public void setIdleMode(IdleMode idleMode) {}
+
+    @Override
+    public void setFastStatus(boolean fast) {}
+
+    @Override
+    public double readCurrent() {
+        return m_current.get();
+    }
+
+    @Override
+    public double readVelocity() {
+        return m_velocity.get();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.Constants.Arm.ArmState;
+import io.github.tigerbotics7125.tigerLib.SparkMaxSim;
+
+/** The real controllers, simulated by REVLib, driving an arm model. */
+public class ArmIOSim extends ArmIOReal {
+    // The sim's angle is up from horizontal, while the encoder counts down towards the amp.
+    private final SparkMaxSim m_leftSim = new SparkMaxSim(m_left, Constants.Power.kNominalVoltage);
+    private final SingleJointedArmSim m_sim =
+            new SingleJointedArmSim(
+                    DCMotor.getNEO(2),
+                    1 / (Constants.Arm.kGearRatio * Constants.Arm.kChainRatio),
+                    SingleJointedArmSim.estimateMOI(Constants.Arm.kLength, Constants.Arm.kMass),
+                    Constants.Arm.kLength,
+                    toSimAngle(Constants.Arm.kMaxPosition),
+                    toSimAngle(Constants.Arm.kMinPosition),
+                    true,
+                    toSimAngle(ArmState.INTAKE.kPosition));
+
+    /** @return Radians up from horizontal. */
+    private static double toSimAngle(double position) {
+        return Math.toRadians(Constants.Arm.kHorizontalPosition - position);
+    }
+
+    @Override
+    public void updateSim() {
+        m_sim.setInputVoltage(-m_leftSim.getMotorVoltage());
+        m_sim.update(TimedRobot.kDefaultPeriod);
+        m_leftSim.setState(
+                Constants.Arm.kHorizontalPosition - Math.toDegrees(m_sim.getAngleRads()),
+                -Math.toDegrees(m_sim.getVelocityRadPerSec()),
+                m_sim.getCurrentDrawAmps());
+    }
+}
@@ -6,92 +6,277 @@
 package io.github.tigerbotics7125.subsystems;
 
 import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkMax;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.RamseteController;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveWheelSpeeds;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.drive.DifferentialDrive;
 import edu.wpi.first.wpilibj.drive.DifferentialDrive.WheelSpeeds;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.RamseteCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.Characterizable;
+import io.github.tigerbotics7125.tigerLib.GainsFile;
+import io.github.tigerbotics7125.tigerLib.JitWarmup;
+import io.github.tigerbotics7125.tigerLib.LoopProfiler;
+import io.github.tigerbotics7125.tigerLib.PowerManager;
+import io.github.tigerbotics7125.tigerLib.PowerManager.Priority;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.SysIdLog;
+import io.github.tigerbotics7125.tigerLib.Telemetry;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
 
-public class Drivetrain extends SubsystemBase {
-    private CANSparkMax frontLeft =
-            new CANSparkMax(Constants.DriveTrain.kFrontLeftID, Constants.DriveTrain.kMotorType);
-    private CANSparkMax frontRight =
-            new CANSparkMax(Constants.DriveTrain.kFrontRightID, Constants.DriveTrain.kMotorType);
-    private CANSparkMax backLeft =
-            new CANSparkMax(Constants.DriveTrain.kBackLeftID, Constants.DriveTrain.kMotorType);
-    private CANSparkMax backRight =
-            new CANSparkMax(Constants.DriveTrain.kBackRightID, Constants.DriveTrain.kMotorType);
+public class Drivetrain extends SubsystemBase implements Characterizable {
+    private final DrivetrainIO m_io;
+    private final SparkMaxInputs m_frontLeftInputs;
+    private final SparkMaxInputs m_frontRightInputs;
 
-    public Drivetrain() {
-        configureMotor(frontLeft);
-        configureMotor(frontRight);
-        configureMotor(backLeft);
-        configureMotor(backRight);
+    // Volts per meter per second of each side.
+    private final GainsFile m_gains = new GainsFile(Constants.SysId.kGainsFile, "drivetrain");
+    private final SimpleMotorFeedforward m_feedforward =
+            new SimpleMotorFeedforward(
+                    m_gains.get("kS", Constants.DriveTrain.kS),
+                    m_gains.get("kV", Constants.DriveTrain.kV),
+                    m_gains.get("kA", Constants.DriveTrain.kA));
 
-        backLeft.follow(frontLeft);
-        backRight.follow(frontRight);
+    private final SysIdLog m_sysIdLog = new SysIdLog("drivetrain", "Left", "Right");
+    private final SysIdRoutine m_sysId =
+            new SysIdRoutine(
+                    new SysIdRoutine.Config(null, null, null, m_sysIdLog::recordState),
+                    new SysIdRoutine.Mechanism(
+                            volts -> setVoltages(volts.in(Units.Volts)),
+                            log -> recordSysId(),
+                            this));
 
-        frontRight.setInverted(true);
-        // No need to tell backRight to invert, it's a follower.
-    }
+    private final LoopProfiler.Probe m_periodicProbe =
+            LoopProfiler.getInstance().probe(getName() + ".periodic()");
+    private final DoubleSignal m_leftSignal =
+            Telemetry.getInstance().doubleSignal("/DT/Left", Tier.CRITICAL);
+    private final DoubleSignal m_rightSignal =
+            Telemetry.getInstance().doubleSignal("/DT/Right", Tier.CRITICAL);
+
+    private final DoubleSignal m_inputToSetSignal =
+            Telemetry.getInstance().doubleSignal("/DT/InputToSetMs", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_inputToOutputSignal =
+            Telemetry.getInstance().doubleSignal("/DT/InputToOutputMs", Tier.DIAGNOSTIC);
+
+    // Latency trace, from the driver's inputs arriving to the left leader reporting the output.
+    // The sampler watches for the status frame, the trace state is shared with it.
+    private final Notifier m_traceSampler = new Notifier(this::sampleTrace);
+    private double m_lastLeft = 0;
+    private double m_traceStart = Double.NaN;
+    private double m_traceTarget = 0;
+    private double m_traceLatency = Double.NaN;
 
-    private void configureMotor(CANSparkMax motor) {
-        motor.restoreFactoryDefaults();
-        Timer.delay(.02);
+    public Drivetrain(DrivetrainIO io) {
+        m_io = io;
+        m_frontLeftInputs = io.getFrontLeftInputs();
+        m_frontRightInputs = io.getFrontRightInputs();
 
-        motor.setSmartCurrentLimit(Constants.DriveTrain.kCurrentLimit);
-        motor.setIdleMode(IdleMode.kCoast);
-        motor.burnFlash();
-        Timer.delay(.02);
+        PowerManager.getInstance()
+                .register(
+                        "DT",
+                        Priority.HIGH,
+                        Constants.DriveTrain.kMinCurrentLimit,
+                        Constants.DriveTrain.kCurrentLimit,
+                        m_frontLeftInputs,
+                        m_frontRightInputs,
+                        io.getBackLeftInputs(),
+                        io.getBackRightInputs());
+
+        if (!m_gains.isFitted()) {
+            // Paths are generated for and followed with these, so autos will miss by more.
+            DriverStation.reportWarning(
+                    "Drivetrain feedforward isn't fitted, using kitbot estimates", false);
+        }
     }
 
     public Command arcadeDrive(
             DoubleSupplier xSpeed, DoubleSupplier zRotation, BooleanSupplier squareInputs) {
         return run(
-                () -> {
-                    WheelSpeeds ws =
-                            DifferentialDrive.arcadeDriveIK(
-                                    xSpeed.getAsDouble(),
-                                    zRotation.getAsDouble(),
-                                    squareInputs.getAsBoolean());
-                    frontLeft.set(ws.left);
-                    frontRight.set(ws.right);
-                });
+                        () ->
+                                drive(
+                                        DifferentialDrive.arcadeDriveIK(
+                                                xSpeed.getAsDouble(),
+                                                zRotation.getAsDouble(),
+                                                squareInputs.getAsBoolean())))
+                .withName("Drivetrain.arcadeDrive");
     }
 
     public Command curvatureDrive(
             DoubleSupplier xSpeed, DoubleSupplier zRotation, BooleanSupplier allowTurnInPlace) {
         return run(
-                () -> {
-                    WheelSpeeds ws =
-                            DifferentialDrive.curvatureDriveIK(
-                                    xSpeed.getAsDouble(),
-                                    zRotation.getAsDouble(),
-                                    allowTurnInPlace.getAsBoolean());
-                    frontLeft.set(ws.left);
-                    frontRight.set(ws.right);
-                });
+                        () ->
+                                drive(
+                                        DifferentialDrive.curvatureDriveIK(
+                                                xSpeed.getAsDouble(),
+                                                zRotation.getAsDouble(),
+                                                allowTurnInPlace.getAsBoolean())))
+                .withName("Drivetrain.curvatureDrive");
+    }
+
+    /**
+     * Set the motors, tracing latency from when the driver station packet the inputs came in
+     * arrived. The output crossing the trace threshold starts a trace, which ends once a status
+     * frame from the controller reports applying it. The drive commands slew limit their inputs,
+     * so a step in output never comes in a single loop, but every ramp crosses the threshold.
+     */
+    private void drive(WheelSpeeds ws) {
+        double sampleTime = SensorSnapshot.getInstance().getDriverStationTimestamp();
+        m_io.set(ws.left, ws.right);
+        m_inputToSetSignal.set((Timer.getFPGATimestamp() - sampleTime) * 1E3);
+
+        double threshold = Constants.DriveTrain.kLatencyTraceThreshold;
+        if (Math.abs(m_lastLeft) < threshold && Math.abs(ws.left) >= threshold) {
+            startTrace(sampleTime, ws.left);
+        }
+        m_lastLeft = ws.left;
+    }
+
+    private synchronized void startTrace(double sampleTime, double target) {
+        if (!Double.isNaN(m_traceStart) || Double.isNaN(sampleTime)) return;
+        m_traceStart = sampleTime;
+        m_traceTarget = target;
+        m_traceLatency = Double.NaN;
+        m_traceSampler.startPeriodic(Constants.DriveTrain.kLatencyTracePeriod);
+    }
+
+    /**
+     * Runs on the sampler thread, faster than the status frames come, so the first one reporting
+     * the output is timed to within a sample. The ramp carries on past the target, so a frame
+     * reporting beyond it counts too.
+     */
+    private synchronized void sampleTrace() {
+        if (Double.isNaN(m_traceStart) || !Double.isNaN(m_traceLatency)) return;
+        double reached = Math.signum(m_traceTarget) * m_io.readLeftOutput();
+        if (reached >= Math.abs(m_traceTarget) - Constants.DriveTrain.kLatencyTraceTolerance) {
+            m_traceLatency = Timer.getFPGATimestamp() - m_traceStart;
+        }
+    }
+
+    /** Publish a finished trace, or drop one which timed out. */
+    private synchronized void finishTrace() {
+        if (Double.isNaN(m_traceStart)) return;
+        if (!Double.isNaN(m_traceLatency)) {
+            m_inputToOutputSignal.set(m_traceLatency * 1E3);
+        } else if (Timer.getFPGATimestamp() - m_traceStart
+                <= Constants.DriveTrain.kLatencyTraceTimeout) {
+            return;
+        }
+        m_traceSampler.stop();
+        m_traceStart = Double.NaN;
+    }
+
+    /** Follow a trajectory with a Ramsete controller, closing each side's velocity loop. */
+    public Command followTrajectory(Trajectory trajectory, Supplier<Pose2d> pose) {
+        return new RamseteCommand(
+                        trajectory,
+                        pose,
+                        new RamseteController(),
+                        m_feedforward,
+                        Constants.DriveTrain.kKinematics,
+                        this::getWheelSpeeds,
+                        new PIDController(Constants.DriveTrain.kP, 0, 0),
+                        new PIDController(Constants.DriveTrain.kP, 0, 0),
+                        m_io::setVoltages,
+                        this)
+                .withName("Drivetrain.followTrajectory");
+    }
+
+    /**
+     * Run the trajectory follower's math along a path without driving, for the {@link JitWarmup}.
+     * Throwaway controllers follow a robot which is always on the path.
+     */
+    public void dryRun(Trajectory trajectory) {
+        RamseteController ramsete = new RamseteController();
+        PIDController left = new PIDController(Constants.DriveTrain.kP, 0, 0);
+        PIDController right = new PIDController(Constants.DriveTrain.kP, 0, 0);
+        DifferentialDriveWheelSpeeds last = new DifferentialDriveWheelSpeeds();
+        for (double t = 0; t <= trajectory.getTotalTimeSeconds(); t += TimedRobot.kDefaultPeriod) {
+            Trajectory.State state = trajectory.sample(t);
+            DifferentialDriveWheelSpeeds speeds =
+                    Constants.DriveTrain.kKinematics.toWheelSpeeds(
+                            ramsete.calculate(state.poseMeters, state));
+            m_feedforward.calculate(
+                    speeds.leftMetersPerSecond,
+                    (speeds.leftMetersPerSecond - last.leftMetersPerSecond)
+                            / TimedRobot.kDefaultPeriod);
+            m_feedforward.calculate(
+                    speeds.rightMetersPerSecond,
+                    (speeds.rightMetersPerSecond - last.rightMetersPerSecond)
+                            / TimedRobot.kDefaultPeriod);
+            left.calculate(last.leftMetersPerSecond, speeds.leftMetersPerSecond);
+            right.calculate(last.rightMetersPerSecond, speeds.rightMetersPerSecond);
+            last = speeds;
+        }
+    }
+
+    @Override
+    public Command sysIdQuasistatic(Direction direction) {
+        return m_sysId.quasistatic(direction).withName("Drivetrain.sysIdQuasistatic");
+    }
+
+    @Override
+    public Command sysIdDynamic(Direction direction) {
+        return m_sysId.dynamic(direction).withName("Drivetrain.sysIdDynamic");
+    }
+
+    /** Both sides get the same volts, so the robot drives straight. */
+    private void setVoltages(double volts) {
+        m_io.setVoltages(volts, volts);
+    }
+
+    /** Meters and meters per second, each side fitted separately. */
+    private void recordSysId() {
+        record(0, m_frontLeftInputs);
+        record(1, m_frontRightInputs);
+    }
+
+    private void record(int side, SparkMaxInputs inputs) {
+        m_sysIdLog.record(
+                side,
+                inputs.getAppliedOutput() * inputs.getBusVoltage(),
+                inputs.getPosition(),
+                inputs.getVelocity());
+    }
+
+    private DifferentialDriveWheelSpeeds getWheelSpeeds() {
+        return new DifferentialDriveWheelSpeeds(
+                m_frontLeftInputs.getVelocity(), m_frontRightInputs.getVelocity());
+    }
+
+    /** For the {@link PoseEstimator}, which reads the wheels and gyro itself. */
+    DrivetrainIO getIO() {
+        return m_io;
     }
 
     public Command setIdleMode(IdleMode idleMode) {
-        return runOnce(
-                        () -> {
-                            frontLeft.setIdleMode(idleMode);
-                            frontRight.setIdleMode(idleMode);
-                            backLeft.setIdleMode(idleMode);
-                            backRight.setIdleMode(idleMode);
-                        })
-                .ignoringDisable(true);
+        return runOnce(() -> m_io.setIdleMode(idleMode))
+                .ignoringDisable(true)
+                .withName("Drivetrain.setIdleMode");
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("/DT/Left", frontLeft.get());
-        SmartDashboard.putNumber("/DT/Right", frontRight.get());
+        m_periodicProbe.start();
+        finishTrace();
+        m_leftSignal.set(m_frontLeftInputs.getAppliedOutput());
+        m_rightSignal.set(m_frontRightInputs.getAppliedOutput());
+        m_periodicProbe.stop();
     }
 }
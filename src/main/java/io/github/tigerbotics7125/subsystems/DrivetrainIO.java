@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/**
+ * The drivetrain's hardware, a leader and follower each side, and the gyro. The odometry getters
+ * run on the {@link PoseEstimator}'s thread, faster than the loop.
+ */
+public interface DrivetrainIO {
+    /** The left leader, its encoder reads the left wheels in meters. */
+    SparkMaxInputs getFrontLeftInputs();
+
+    /** The right leader, its encoder reads the right wheels in meters. */
+    SparkMaxInputs getFrontRightInputs();
+
+    SparkMaxInputs getBackLeftInputs();
+
+    SparkMaxInputs getBackRightInputs();
+
+    /** Duty cycle [-1, 1]. */
+    void set(double left, double right);
+
+    void setVoltages(double left, double right);
+
+    void setIdleMode(IdleMode idleMode);
+
+    /** Match the gyro to the odometry rate and turn off the rest of what it sends. */
+    default void configureOdometry(double frequency) {}
+
+    /** @return Left wheel distance, meters. */
+    double getLeftDistance();
+
+    /** @return Right wheel distance, meters. */
+    double getRightDistance();
+
+    /** @return Degrees counterclockwise, brought up to now. */
+    double getYaw();
+
+    /** @return Left leader's duty cycle, straight from it, for sampling faster than the loop. */
+    double readLeftOutput();
+
+    /** Advance the physics a loop, only the sim has any. */
+    default void updateSim() {}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.Pigeon2;
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkRelativeEncoder;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfig;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfigurator;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.SparkMaxOutput;
+
+public class DrivetrainIOReal implements DrivetrainIO {
+    protected final CANSparkMax m_frontLeft =
+            new CANSparkMax(Constants.DriveTrain.kFrontLeftID, Constants.DriveTrain.kMotorType);
+    protected final CANSparkMax m_frontRight =
+            new CANSparkMax(Constants.DriveTrain.kFrontRightID, Constants.DriveTrain.kMotorType);
+    private final CANSparkMax m_backLeft =
+            new CANSparkMax(Constants.DriveTrain.kBackLeftID, Constants.DriveTrain.kMotorType);
+    private final CANSparkMax m_backRight =
+            new CANSparkMax(Constants.DriveTrain.kBackRightID, Constants.DriveTrain.kMotorType);
+
+    private final SparkMaxOutput m_leftOutput =
+            new SparkMaxOutput(
+                    "DT/FrontLeft",
+                    m_frontLeft,
+                    Constants.CAN.kKeepAlivePeriod,
+                    Constants.CAN.kOutputTolerance);
+    private final SparkMaxOutput m_rightOutput =
+            new SparkMaxOutput(
+                    "DT/FrontRight",
+                    m_frontRight,
+                    Constants.CAN.kKeepAlivePeriod,
+                    Constants.CAN.kOutputTolerance);
+    // What was asked for, to compare a replay's "/Replay/DT" against.
+    private final Channel m_leftChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/DT/Left");
+    private final Channel m_rightChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/DT/Right");
+    private final Channel m_leftVoltsChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/DT/LeftVolts");
+    private final Channel m_rightVoltsChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/DT/RightVolts");
+
+    // Brushed, so the leaders read quadrature encoders through their data ports.
+    private final RelativeEncoder m_leftEncoder =
+            m_frontLeft.getEncoder(
+                    SparkRelativeEncoder.Type.kQuadrature,
+                    Constants.DriveTrain.kEncoderCountsPerRev);
+    private final RelativeEncoder m_rightEncoder =
+            m_frontRight.getEncoder(
+                    SparkRelativeEncoder.Type.kQuadrature,
+                    Constants.DriveTrain.kEncoderCountsPerRev);
+    protected final Pigeon2 m_pigeon = new Pigeon2(Constants.DriveTrain.kPigeonID);
+    private final StatusSignal<Double> m_yaw = m_pigeon.getYaw();
+    private final StatusSignal<Double> m_yawRate = m_pigeon.getAngularVelocityZWorld();
+
+    private final SparkMaxInputs m_frontLeftInputs =
+            SensorSnapshot.getInstance()
+                    .sparkMaxWithEncoder("DT/FrontLeft", m_frontLeft, m_leftEncoder);
+    private final SparkMaxInputs m_frontRightInputs =
+            SensorSnapshot.getInstance()
+                    .sparkMaxWithEncoder("DT/FrontRight", m_frontRight, m_rightEncoder);
+    private final SparkMaxInputs m_backLeftInputs =
+            SensorSnapshot.getInstance().sparkMax("DT/BackLeft", m_backLeft);
+    private final SparkMaxInputs m_backRightInputs =
+            SensorSnapshot.getInstance().sparkMax("DT/BackRight", m_backRight);
+
+    public DrivetrainIOReal() {
+        SparkMaxConfigurator configurator = SparkMaxConfigurator.getInstance();
+        configurator.configure(
+                "DT/FrontLeft",
+                m_frontLeft,
+                leaderConfig()
+                        .quadratureEncoder(
+                                Constants.DriveTrain.kEncoderCountsPerRev,
+                                Constants.DriveTrain.kLeftEncoderInverted));
+        configurator.configure(
+                "DT/FrontRight",
+                m_frontRight,
+                leaderConfig()
+                        .inverted(true)
+                        .quadratureEncoder(
+                                Constants.DriveTrain.kEncoderCountsPerRev,
+                                Constants.DriveTrain.kRightEncoderInverted));
+        configurator.configure("DT/BackLeft", m_backLeft, followerConfig().follow(m_frontLeft));
+        // No need to tell backRight to invert, it's a follower.
+        configurator.configure(
+                "DT/BackRight", m_backRight, followerConfig().follow(m_frontRight));
+    }
+
+    private SparkMaxConfig leaderConfig() {
+        return new SparkMaxConfig()
+                .currentLimit(Constants.DriveTrain.kCurrentLimit)
+                .idleMode(IdleMode.kCoast)
+                .conversionFactors(
+                        Constants.DriveTrain.kPositionConversionFactor,
+                        Constants.DriveTrain.kVelocityConversionFactor)
+                // Position feeds odometry, which samples faster than the main loop.
+                .statusFrames(
+                        Constants.CAN.kFastFrame,
+                        Constants.CAN.kDefaultFrame,
+                        Constants.DriveTrain.kOdometryFrame);
+    }
+
+    private SparkMaxConfig followerConfig() {
+        return new SparkMaxConfig()
+                .currentLimit(Constants.DriveTrain.kCurrentLimit)
+                .idleMode(IdleMode.kCoast)
+                // Duty cycle and current, for PowerManager's battery current.
+                .statusFrames(
+                        Constants.CAN.kDefaultFrame,
+                        Constants.CAN.kDefaultFrame,
+                        Constants.CAN.kSlowFrame);
+    }
+
+    @Override
+    public SparkMaxInputs getFrontLeftInputs() {
+        return m_frontLeftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getFrontRightInputs() {
+        return m_frontRightInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getBackLeftInputs() {
+        return m_backLeftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getBackRightInputs() {
+        return m_backRightInputs;
+    }
+
+    @Override
+    public void set(double left, double right) {
+        m_leftOutput.set(left);
+        m_rightOutput.set(right);
+        m_leftChannel.set(left);
+        m_rightChannel.set(right);
+    }
+
+    @Override
+    public void setVoltages(double left, double right) {
+        m_leftOutput.setVoltage(left);
+        m_rightOutput.setVoltage(right);
+        m_leftVoltsChannel.set(left);
+        m_rightVoltsChannel.set(right);
+    }
+
+    @Override
+    public void setIdleMode(IdleMode idleMode) {
+        m_frontLeft.setIdleMode(idleMode);
+        m_frontRight.setIdleMode(idleMode);
+        m_backLeft.setIdleMode(idleMode);
+        m_backRight.setIdleMode(idleMode);
+    }
+
+    @Override
+    public void configureOdometry(double frequency) {
+        BaseStatusSignal.setUpdateFrequencyForAll(frequency, m_yaw, m_yawRate);
+        m_pigeon.optimizeBusUtilization();
+    }
+
+    @Override
+    public double getLeftDistance() {
+        return m_leftEncoder.getPosition();
+    }
+
+    @Override
+    public double getRightDistance() {
+        return m_rightEncoder.getPosition();
+    }
+
+    @Override
+    public double getYaw() {
+        BaseStatusSignal.refreshAll(m_yaw, m_yawRate);
+        // Extrapolate the yaw to now, it was measured a little before it arrived.
+        return BaseStatusSignal.getLatencyCompensatedValue(m_yaw, m_yawRate);
+    }
+
+    @Override
+    public double readLeftOutput() {
+        return m_frontLeft.getAppliedOutput();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import io.github.tigerbotics7125.tigerLib.LogReplay;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/**
+ * Readings from the replayed log, outputs are only recorded under "/Replay/DT". Odometry was only
+ * logged once a loop, so it is replayed from the loop's readings.
+ */
+public class DrivetrainIOReplay implements DrivetrainIO {
+    private final SparkMaxInputs m_frontLeftInputs =
+            SensorSnapshot.getInstance().replayed("DT/FrontLeft", true);
+    private final SparkMaxInputs m_frontRightInputs =
+            SensorSnapshot.getInstance().replayed("DT/FrontRight", true);
+    private final SparkMaxInputs m_backLeftInputs =
+            SensorSnapshot.getInstance().replayed("DT/BackLeft", false);
+    private final SparkMaxInputs m_backRightInputs =
+            SensorSnapshot.getInstance().replayed("DT/BackRight", false);
+    // Read by the odometry thread between loops, before the snapshot is refreshed.
+    private final LogReplay.Channel m_leftDistance =
+            LogReplay.getInstance().channel("/Inputs/DT/FrontLeft/Position");
+    private final LogReplay.Channel m_rightDistance =
+            LogReplay.getInstance().channel("/Inputs/DT/FrontRight/Position");
+    private final LogReplay.Channel m_yaw =
+            LogReplay.getInstance().channel(PoseEstimator.kYawChannel);
+
+    private final Channel m_leftChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/DT/Left");
+    private final Channel m_rightChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/DT/Right");
+    private final Channel m_leftVoltsChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/DT/LeftVolts");
+    private final Channel m_rightVoltsChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/DT/RightVolts");
+
+    @Override
+    public SparkMaxInputs getFrontLeftInputs() {
+        return m_frontLeftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getFrontRightInputs() {
+        return m_frontRightInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getBackLeftInputs() {
+        return m_backLeftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getBackRightInputs() {
+        return m_backRightInputs;
+    }
+
+    @Override
+    public void set(double left, double right) {
+        m_leftChannel.set(left);
+        m_rightChannel.set(right);
+    }
+
+    @Override
+    public void setVoltages(double left, double right) {
+        m_leftVoltsChannel.set(left);
+        m_rightVoltsChannel.set(right);
+    }
+
+    @Override
+    public void setIdleMode(IdleMode idleMode) {}
+
+    @Override
+    public double getLeftDistance() {
+        return m_leftDistance.get();
+    }
+
+    @Override
+    public double getRightDistance() {
+        return m_rightDistance.get();
+    }
+
+    @Override
+    public double getYaw() {
+        return m_yaw.get();
+    }
+
+    @Override
+    public double readLeftOutput() {
+        return m_frontLeftInputs.getAppliedOutput();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.ctre.phoenix6.sim.Pigeon2SimState;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim.KitbotGearing;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim.KitbotMotor;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim.KitbotWheelSize;
+import io.github.tigerbotics7125.tigerLib.SparkMaxSim;
+
+/** The real controllers and gyro, simulated by REVLib and Phoenix, driving a kitbot model. */
+public class DrivetrainIOSim extends DrivetrainIOReal {
+    private final SparkMaxSim m_leftSim = new SparkMaxSim(m_frontLeft);
+    private final SparkMaxSim m_rightSim = new SparkMaxSim(m_frontRight);
+    private final DifferentialDrivetrainSim m_sim =
+            DifferentialDrivetrainSim.createKitbotSim(
+                    KitbotMotor.kDualCIMPerSide,
+                    KitbotGearing.k8p45,
+                    KitbotWheelSize.kSixInch,
+                    null);
+
+    @Override
+    public void updateSim() {
+        m_sim.setInputs(m_leftSim.getMotorVoltage(), m_rightSim.getMotorVoltage());
+        m_sim.update(TimedRobot.kDefaultPeriod);
+        // Each leader carries its whole side's current, the followers aren't simulated.
+        m_leftSim.setState(
+                m_sim.getLeftPositionMeters(),
+                m_sim.getLeftVelocityMetersPerSecond(),
+                m_sim.getLeftCurrentDrawAmps());
+        m_rightSim.setState(
+                m_sim.getRightPositionMeters(),
+                m_sim.getRightVelocityMetersPerSecond(),
+                m_sim.getRightCurrentDrawAmps());
+        Pigeon2SimState pigeon = m_pigeon.getSimState();
+        pigeon.setSupplyVoltage(RobotController.getBatteryVoltage());
+        pigeon.setRawYaw(m_sim.getHeading().getDegrees());
+    }
+}
@@ -5,52 +5,141 @@
  */
 package io.github.tigerbotics7125.subsystems;
 
-import com.revrobotics.CANSparkMax;
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.LoopProfiler;
+import io.github.tigerbotics7125.tigerLib.PowerManager;
+import io.github.tigerbotics7125.tigerLib.PowerManager.Priority;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.Telemetry;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.StringSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
 import java.util.function.DoubleSupplier;
 
 public class Intake extends SubsystemBase {
-
-    private CANSparkMax m_intake =
-            new CANSparkMax(Constants.Intake.kIntakeID, Constants.Intake.kMotorType);
-
-    public Intake() {
-        configureMotor(m_intake);
+    /**
+     * Where a note is, from the roller current. Squeezing a note through the rollers raises it, and
+     * it falls back once the note is seated.
+     */
+    private enum NoteState {
+        EMPTY,
+        /** The rollers are pulling a note in. */
+        ACQUIRING,
+        HELD;
     }
 
-    private void configureMotor(CANSparkMax motor) {
-        motor.restoreFactoryDefaults();
-        Timer.delay(.02);
+    private final IntakeIO m_io;
+    private final SparkMaxInputs m_inputs;
+
+    private LinearFilter m_currentFilter =
+            LinearFilter.singlePoleIIR(
+                    Constants.Intake.kCurrentTimeConstant, TimedRobot.kDefaultPeriod);
+    private Debouncer m_spunUp = new Debouncer(Constants.Intake.kSpinUpTime, DebounceType.kRising);
+    private Debouncer m_loaded = new Debouncer(Constants.Intake.kNoteDebounce, DebounceType.kBoth);
+    private Debouncer m_released =
+            new Debouncer(Constants.Intake.kReleaseTime, DebounceType.kRising);
+    private NoteState m_noteState = NoteState.EMPTY;
+    private double m_intakeStart = Double.NaN;
 
-        motor.setSmartCurrentLimit(Constants.Intake.kCurrentLimit);
+    private final Trigger m_hasNote = new Trigger(() -> m_noteState == NoteState.HELD);
 
-        m_intake.setInverted(Constants.Intake.kInverted);
+    private final LoopProfiler.Probe m_periodicProbe =
+            LoopProfiler.getInstance().probe(getName() + ".periodic()");
+    private final DoubleSignal m_currentSignal =
+            Telemetry.getInstance().doubleSignal("/Intake/FilteredCurrent", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_stowSignal =
+            Telemetry.getInstance().doubleSignal("/Intake/IntakeToStowSeconds", Tier.DIAGNOSTIC);
+    private final StringSignal m_noteStateSignal =
+            Telemetry.getInstance().stringSignal("/Intake/NoteState", Tier.DIAGNOSTIC);
 
-        motor.burnFlash();
-        Timer.delay(.02);
+    public Intake(IntakeIO io) {
+        m_io = io;
+        m_inputs = io.getInputs();
+        PowerManager.getInstance()
+                .register(
+                        "Intake",
+                        Priority.LOW,
+                        Constants.Intake.kMinCurrentLimit,
+                        Constants.Intake.kCurrentLimit,
+                        m_inputs);
     }
 
     public Command disable() {
-        return run(m_intake::disable);
+        return run(m_io::stop).withName("Intake.disable");
     }
 
+    /** Run the rollers until a note is held, ends straight away if there already is one. */
     public Command intake() {
-        return run(() -> m_intake.set(Constants.Intake.kIntakeSpeed));
+        return runOnce(() -> m_intakeStart = Timer.getFPGATimestamp())
+                .andThen(run(() -> m_io.set(Constants.Intake.kIntakeSpeed)))
+                .until(m_hasNote)
+                .withName("Intake.intake");
     }
 
     public Command outtake(DoubleSupplier axis) {
         return run(
-                () ->
-                        m_intake.set(
-                                MathUtil.interpolate(
-                                        0, Constants.Intake.kMaxOutakeSpeed, axis.getAsDouble())));
+                        () ->
+                                m_io.set(
+                                        MathUtil.interpolate(
+                                                0,
+                                                Constants.Intake.kMaxOutakeSpeed,
+                                                axis.getAsDouble())))
+                .withName("Intake.outtake");
     }
 
     public Command feedShooter() {
-        return run(() -> m_intake.set(Constants.Intake.kFeedSpeed));
+        return run(() -> m_io.set(Constants.Intake.kFeedSpeed)).withName("Intake.feedShooter");
+    }
+
+    /** True while a note is held, from the roller current. */
+    public Trigger hasNote() {
+        return m_hasNote;
+    }
+
+    /** @return Amps, from this loop's snapshot. */
+    public double getOutputCurrent() {
+        return m_inputs.getOutputCurrent();
+    }
+
+    @Override
+    public void periodic() {
+        m_periodicProbe.start();
+        double output = m_inputs.getAppliedOutput();
+        double current = m_currentFilter.calculate(m_inputs.getOutputCurrent());
+        // Spin up current looks like a note, only trust it once the rollers are up to speed.
+        boolean spunUp = m_spunUp.calculate(output != 0);
+        boolean loaded = m_loaded.calculate(spunUp && current > Constants.Intake.kNoteCurrent);
+        boolean released =
+                m_released.calculate(output < 0 || output > Constants.Intake.kIntakeSpeed);
+
+        switch (m_noteState) {
+            case EMPTY -> {
+                if (output > 0 && loaded) m_noteState = NoteState.ACQUIRING;
+            }
+            case ACQUIRING -> {
+                if (output <= 0) {
+                    m_noteState = NoteState.EMPTY;
+                } else if (!loaded) {
+                    m_noteState = NoteState.HELD;
+                    m_stowSignal.set(Timer.getFPGATimestamp() - m_intakeStart);
+                }
+            }
+            case HELD -> {
+                if (released) m_noteState = NoteState.EMPTY;
+            }
+        }
+
+        m_currentSignal.set(current);
+        m_noteStateSignal.set(m_noteState.name());
+        m_periodicProbe.stop();
     }
 }
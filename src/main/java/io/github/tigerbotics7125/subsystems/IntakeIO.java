@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/** The intake's hardware, one roller motor. */
+public interface IntakeIO {
+    SparkMaxInputs getInputs();
+
+    /** @param output Duty cycle, positive pulls a note in. */
+    void set(double output);
+
+    void stop();
+
+    /** Advance the physics a loop, only the sim has any. */
+    default void updateSim() {}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.revrobotics.CANSparkMax;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfig;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfigurator;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.SparkMaxOutput;
+
+public class IntakeIOReal implements IntakeIO {
+    protected final CANSparkMax m_intake =
+            new CANSparkMax(Constants.Intake.kIntakeID, Constants.Intake.kMotorType);
+
+    private final SparkMaxOutput m_output =
+            new SparkMaxOutput(
+                    "Intake",
+                    m_intake,
+                    Constants.CAN.kKeepAlivePeriod,
+                    Constants.CAN.kOutputTolerance);
+    private final Channel m_outputChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/Intake/Output");
+
+    private final SparkMaxInputs m_inputs =
+            SensorSnapshot.getInstance().sparkMaxWithEncoder("Intake", m_intake);
+
+    public IntakeIOReal() {
+        SparkMaxConfigurator.getInstance()
+                .configure(
+                        "Intake",
+                        m_intake,
+                        new SparkMaxConfig()
+                                .currentLimit(Constants.Intake.kCurrentLimit)
+                                // Current is in status 1, fast for note detection.
+                                .statusFrames(
+                                        Constants.CAN.kFastFrame,
+                                        Constants.CAN.kFastFrame,
+                                        Constants.CAN.kSlowFrame)
+                                .inverted(Constants.Intake.kInverted));
+    }
+
+    @Override
+    public SparkMaxInputs getInputs() {
+        return m_inputs;
+    }
+
+    @Override
+    public void set(double output) {
+        m_output.set(output);
+        m_outputChannel.set(output);
+    }
+
+    @Override
+    public void stop() {
+        set(0);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/** Readings from the replayed log, outputs are only recorded under "/Replay/Intake". */
+public class IntakeIOReplay implements IntakeIO {
+    private final SparkMaxInputs m_inputs = SensorSnapshot.getInstance().replayed("Intake", true);
+
+    private final Channel m_outputChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/Intake/Output");
+
+    @Override
+    public SparkMaxInputs getInputs() {
+        return m_inputs;
+    }
+
+    @Override
+    public void set(double output) {
+        m_outputChannel.set(output);
+    }
+
+    @Override
+    public void stop() {
+        set(0);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.SparkMaxSim;
+
+/** The real controller, simulated by REVLib, driving a roller model and the {@link NoteSim}. */
+public class IntakeIOSim extends IntakeIOReal {
+    private final SparkMaxSim m_motorSim = new SparkMaxSim(m_intake);
+    private final FlywheelSim m_sim =
+            new FlywheelSim(DCMotor.getNEO(1), Constants.Intake.kGearing, Constants.Intake.kMOI);
+    private double m_position = 0;
+
+    @Override
+    public void updateSim() {
+        NoteSim note = NoteSim.getInstance();
+        note.update(m_intake.getAppliedOutput(), TimedRobot.kDefaultPeriod);
+
+        m_sim.setInputVoltage(m_motorSim.getMotorVoltage());
+        m_sim.update(TimedRobot.kDefaultPeriod);
+        // Motor rotations, the encoder has no conversion factor.
+        double rpm = m_sim.getAngularVelocityRPM() * Constants.Intake.kGearing;
+        m_position += rpm / 60 * TimedRobot.kDefaultPeriod;
+        m_motorSim.setState(m_position, rpm, m_sim.getCurrentDrawAmps() + note.getIntakeLoad());
+    }
+}
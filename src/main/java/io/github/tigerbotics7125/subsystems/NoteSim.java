@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+/**
+ * Where the simulated note is, shared by the intake and shooter simulations. There is always a
+ * note in front of the intake, running it inwards picks one up.
+ */
+final class NoteSim {
+    // Seconds the rollers need to pull a note in, push it back out, or feed it to the shooter.
+    private static final double kIntakeTime = .25;
+    private static final double kOuttakeTime = .3;
+    private static final double kFeedTime = .1;
+    // Extra roller current while a note is squeezed through them, amps.
+    private static final double kNoteLoad = 15;
+    // Duty cycle above which the intake is feeding the shooter rather than intaking.
+    private static final double kFeedOutput = .75;
+
+    enum State {
+        EMPTY,
+        INTAKING,
+        HELD,
+        OUTTAKING,
+        FEEDING;
+    }
+
+    private static NoteSim s_instance;
+
+    private State m_state = State.EMPTY;
+    private double m_stateTime = 0;
+    private boolean m_shotPending = false;
+
+    private NoteSim() {}
+
+    static synchronized NoteSim getInstance() {
+        if (s_instance == null) {
+            s_instance = new NoteSim();
+        }
+        return s_instance;
+    }
+
+    /** Step the note given the intake's duty cycle, positive is inwards. */
+    void update(double intakeOutput, double dt) {
+        m_stateTime += dt;
+        switch (m_state) {
+            case EMPTY -> {
+                if (intakeOutput > 0) transition(State.INTAKING);
+            }
+            case INTAKING -> {
+                if (intakeOutput <= 0) transition(State.EMPTY);
+                else if (m_stateTime >= kIntakeTime) transition(State.HELD);
+            }
+            case HELD -> {
+                if (intakeOutput < 0) transition(State.OUTTAKING);
+                else if (intakeOutput >= kFeedOutput) transition(State.FEEDING);
+            }
+            case OUTTAKING -> {
+                if (intakeOutput >= 0) transition(State.HELD);
+                else if (m_stateTime >= kOuttakeTime) transition(State.EMPTY);
+            }
+            case FEEDING -> {
+                if (m_stateTime >= kFeedTime) {
+                    m_shotPending = true;
+                    transition(State.EMPTY);
+                }
+            }
+        }
+    }
+
+    private void transition(State state) {
+        m_state = state;
+        m_stateTime = 0;
+    }
+
+    State getState() {
+        return m_state;
+    }
+
+    /** @return Amps the note adds to the intake motor. */
+    double getIntakeLoad() {
+        return switch (m_state) {
+            case INTAKING, OUTTAKING, FEEDING -> kNoteLoad;
+            case EMPTY, HELD -> 0;
+        };
+    }
+
+    /** @return True once for each note which has left through the shooter. */
+    boolean takeShot() {
+        boolean shot = m_shotPending;
+        m_shotPending = false;
+        return shot;
+    }
+}
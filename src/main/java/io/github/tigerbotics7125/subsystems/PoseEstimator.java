@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveOdometry;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.LoopProfiler;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.Telemetry;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drivetrain odometry from the wheel encoders and the gyro, run on its own Notifier every
+ * {@link Constants.DriveTrain#kOdometryPeriod} rather than once per main loop.
+ *
+ * <p>Each sample is published as an immutable {@link PoseSample} through a volatile field and a
+ * short history ring, so the main loop and autos read the pose without taking a lock.
+ */
+public class PoseEstimator extends SubsystemBase {
+    private static final int kHistory = 200; // One second of samples.
+
+    /** A pose and the FPGA time, in seconds, it was sampled at. */
+    public record PoseSample(double timestamp, Pose2d pose) {}
+
+    /** The gyro's yaw at the latest sample, logged each loop so odometry can be replayed. */
+    static final String kYawChannel = "/Inputs/DT/Yaw";
+
+    private final DrivetrainIO m_io;
+
+    // Only touched by the odometry thread.
+    private final DifferentialDriveOdometry m_odometry =
+            new DifferentialDriveOdometry(new Rotation2d(), 0, 0);
+    private final Notifier m_notifier = new Notifier(this::sample);
+
+    private final PoseSample[] m_history = new PoseSample[kHistory];
+    private volatile long m_sequence = -1;
+    private volatile PoseSample m_latest = new PoseSample(0, new Pose2d());
+    private volatile double m_yaw = 0;
+    private final AtomicReference<Pose2d> m_pendingReset = new AtomicReference<>();
+    // Odometry starts at the origin, meaningless on the field until reset from a known pose.
+    private volatile boolean m_seeded = false;
+
+    private final LoopProfiler.Probe m_periodicProbe =
+            LoopProfiler.getInstance().probe(getName() + ".periodic()");
+    private final DoubleSignal m_xSignal =
+            Telemetry.getInstance().doubleSignal("/Pose/X", Tier.CRITICAL);
+    private final DoubleSignal m_ySignal =
+            Telemetry.getInstance().doubleSignal("/Pose/Y", Tier.CRITICAL);
+    private final DoubleSignal m_headingSignal =
+            Telemetry.getInstance().doubleSignal("/Pose/Heading", Tier.CRITICAL);
+    private final DoubleSignal m_ageSignal =
+            Telemetry.getInstance().doubleSignal("/Pose/AgeMs", Tier.DIAGNOSTIC);
+    private final IntegerSignal m_samplesSignal =
+            Telemetry.getInstance().integerSignal("/Pose/Samples", Tier.DIAGNOSTIC);
+    private final Channel m_yawChannel = MatchLogger.getInstance().doubleChannel(kYawChannel);
+
+    public PoseEstimator(Drivetrain drivetrain) {
+        m_io = drivetrain.getIO();
+        m_io.configureOdometry(1 / Constants.DriveTrain.kOdometryPeriod);
+
+        m_notifier.setName("PoseEstimator");
+        m_notifier.startPeriodic(Constants.DriveTrain.kOdometryPeriod);
+    }
+
+    /** Runs on the odometry thread. */
+    private void sample() {
+        double yaw = m_io.getYaw();
+        double timestamp = Timer.getFPGATimestamp();
+        Rotation2d heading = Rotation2d.fromDegrees(yaw);
+        double left = m_io.getLeftDistance();
+        double right = m_io.getRightDistance();
+
+        Pose2d reset = m_pendingReset.getAndSet(null);
+        if (reset != null) {
+            m_odometry.resetPosition(heading, left, right, reset);
+        }
+        PoseSample sample = new PoseSample(timestamp, m_odometry.update(heading, left, right));
+
+        long sequence = m_sequence + 1;
+        m_history[(int) (sequence % kHistory)] = sample;
+        m_latest = sample;
+        m_yaw = yaw;
+        m_sequence = sequence;
+        // After the sample, so a seeded pose is never the one from before the reset.
+        if (reset != null) m_seeded = true;
+    }
+
+    /** @return The most recent pose, lock free. */
+    public Pose2d getPose() {
+        return m_latest.pose();
+    }
+
+    public PoseSample getLatest() {
+        return m_latest;
+    }
+
+    /**
+     * @param timestamp FPGA time, seconds.
+     * @return The pose interpolated to the timestamp, empty if it is older than the history.
+     */
+    public Optional<Pose2d> getPose(double timestamp) {
+        while (true) {
+            long sequence = m_sequence;
+            PoseSample older = null;
+            PoseSample newer = null;
+            long oldest = sequence;
+            for (long i = sequence; i >= 0 && i > sequence - kHistory; i--) {
+                PoseSample sample = m_history[(int) (i % kHistory)];
+                oldest = i;
+                if (sample.timestamp() <= timestamp) {
+                    older = sample;
+                    break;
+                }
+                newer = sample;
+            }
+            // The odometry thread writes the slot after m_sequence before publishing it. If it
+            // has reached a slot we read, that sample may be from a lap later, read it again.
+            if (oldest <= m_sequence + 1 - kHistory) continue;
+
+            if (older == null) return Optional.empty();
+            if (newer == null) return Optional.of(older.pose());
+            double t = (timestamp - older.timestamp()) / (newer.timestamp() - older.timestamp());
+            return Optional.of(older.pose().interpolate(newer.pose(), t));
+        }
+    }
+
+    /** @return True once a reset has placed the pose on the field. */
+    public boolean isSeeded() {
+        return m_seeded;
+    }
+
+    /** Applied by the odometry thread on its next sample. */
+    public void resetPose(Pose2d pose) {
+        m_pendingReset.set(pose);
+    }
+
+    @Override
+    public void periodic() {
+        m_periodicProbe.start();
+        PoseSample latest = m_latest;
+        Pose2d pose = latest.pose();
+        m_xSignal.set(pose.getX());
+        m_ySignal.set(pose.getY());
+        m_headingSignal.set(pose.getRotation().getDegrees());
+        m_ageSignal.set((Timer.getFPGATimestamp() - latest.timestamp()) * 1E3);
+        m_samplesSignal.set(m_sequence + 1);
+        m_yawChannel.set(m_yaw);
+        m_periodicProbe.stop();
+    }
+}
@@ -5,85 +5,328 @@
  */
 package io.github.tigerbotics7125.subsystems;
 
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.RelativeEncoder;
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.Constants.ClosedLoopLocation;
+import io.github.tigerbotics7125.tigerLib.Characterizable;
+import io.github.tigerbotics7125.tigerLib.GainsFile;
+import io.github.tigerbotics7125.tigerLib.JitWarmup;
+import io.github.tigerbotics7125.tigerLib.LookupTable;
+import io.github.tigerbotics7125.tigerLib.LoopProfiler;
+import io.github.tigerbotics7125.tigerLib.PowerManager;
+import io.github.tigerbotics7125.tigerLib.PowerManager.Priority;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.SysIdLog;
+import io.github.tigerbotics7125.tigerLib.Telemetry;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.StringSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.DoubleSupplier;
 
 // TODO contemplate using a BangBangController, especially if the shooter becomes more massive.
 
-public class Shooter extends SubsystemBase {
-
-    private CANSparkMax m_left =
-            new CANSparkMax(Constants.Shooter.kLeftID, Constants.Shooter.kMotorType);
-    private CANSparkMax m_right =
-            new CANSparkMax(Constants.Shooter.kRightID, Constants.Shooter.kMotorType);
+public class Shooter extends SubsystemBase implements Characterizable {
+    private static final int kDryRunLoops = 100;
+    private static final double kDryRunDistanceStep = .1; // meters
+    private final ShooterIO m_io;
 
     private PIDController m_PID =
             new PIDController(Constants.Shooter.kP, Constants.Shooter.kI, Constants.Shooter.kD);
+    private PIDController m_dryRunPID =
+            new PIDController(Constants.Shooter.kP, Constants.Shooter.kI, Constants.Shooter.kD);
+    // Volts per rotation per second of the flywheel.
+    private final GainsFile m_gains = new GainsFile(Constants.SysId.kGainsFile, "shooter");
+    private SimpleMotorFeedforward m_feedforward =
+            new SimpleMotorFeedforward(
+                    m_gains.get("kS", Constants.Shooter.kS),
+                    m_gains.get("kV", Constants.Shooter.kV),
+                    m_gains.get("kA", Constants.Shooter.kA));
+
+    private ClosedLoopLocation m_closedLoopLocation = Constants.Shooter.kClosedLoopLocation;
+    private double m_setpoint = 0;
+    private double m_spinUpStart = Double.NaN;
+    private double m_shotStart = Double.NaN;
+    private double m_feedPeak = 0;
+
+    // rpm per second, measured from the encoder velocity.
+    private LinearFilter m_accelerationFilter =
+            LinearFilter.singlePoleIIR(
+                    Constants.Shooter.kAccelerationTimeConstant, TimedRobot.kDefaultPeriod);
+    private double m_lastVelocity = 0;
+    private double m_acceleration = 0;
+
+    private final Trigger m_ready = new Trigger(() -> m_setpoint != 0).and(this::atSetpoint);
+    private final Trigger m_feedReady =
+            new Trigger(() -> m_setpoint != 0)
+                    .and(() -> timeToSetpoint() <= Constants.Shooter.kFeedLead);
+
+    private DoubleSupplier m_speakerDistance;
+    private LookupTable m_shotRPM = loadShotRPM();
+
+    private final SparkMaxInputs m_leftInputs;
 
-    private RelativeEncoder m_encoder = m_left.getEncoder();
+    private final SysIdLog m_sysIdLog = new SysIdLog("shooter", "Left");
+    private final SysIdRoutine m_sysId =
+            new SysIdRoutine(
+                    new SysIdRoutine.Config(null, null, null, m_sysIdLog::recordState),
+                    new SysIdRoutine.Mechanism(
+                            volts ->
+                                    m_io.set(
+                                            volts.in(Units.Volts)
+                                                    / Constants.Power.kNominalVoltage),
+                            log -> recordSysId(),
+                            this));
 
-    public Shooter() {
-        configureMotor(m_left);
-        configureMotor(m_right);
+    private final LoopProfiler.Probe m_periodicProbe =
+            LoopProfiler.getInstance().probe(getName() + ".periodic()");
+    private final DoubleSignal m_velocitySignal =
+            Telemetry.getInstance().doubleSignal("/Shooter/Velocity", Tier.CRITICAL);
+    private final DoubleSignal m_setpointSignal =
+            Telemetry.getInstance().doubleSignal("/Shooter/Setpoint", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_spinUpSignal =
+            Telemetry.getInstance().doubleSignal("/Shooter/SpinUpSeconds", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_shotLatencySignal =
+            Telemetry.getInstance().doubleSignal("/Shooter/ShotLatencySeconds", Tier.DIAGNOSTIC);
+    private final StringSignal m_closedLoopSignal =
+            Telemetry.getInstance().stringSignal("/Shooter/ClosedLoop", Tier.STATIC);
 
-        m_left.setInverted(Constants.Shooter.kInvertedFollower);
-        m_right.follow(m_left);
+    /** @param speakerDistance Meters to the speaker, NaN if unknown. */
+    public Shooter(ShooterIO io, DoubleSupplier speakerDistance) {
+        m_io = io;
+        m_leftInputs = io.getLeaderInputs();
+        m_speakerDistance = speakerDistance;
+
+        PowerManager.getInstance()
+                .register(
+                        "Shooter",
+                        Priority.MEDIUM,
+                        Constants.Shooter.kMinCurrentLimit,
+                        Constants.Shooter.kCurrentLimit,
+                        m_leftInputs,
+                        io.getFollowerInputs());
 
         m_PID.setTolerance(0, Constants.Shooter.kPIDTolerance);
     }
 
-    private void configureMotor(CANSparkMax motor) {
-        motor.restoreFactoryDefaults();
-        Timer.delay(.02);
+    /** Uses the measured error, so it works the same with either closed loop location. */
+    public Trigger isShooterReady() {
+        return m_ready;
+    }
 
-        motor.setSmartCurrentLimit(Constants.Shooter.kCurrentLimit);
+    private boolean atSetpoint() {
+        return Math.abs(m_setpoint - m_leftInputs.getVelocity()) <= Constants.Shooter.kPIDTolerance;
+    }
 
-        motor.burnFlash();
-        Timer.delay(.02);
+    /**
+     * @return Seconds until the flywheel is in tolerance if it keeps its current acceleration,
+     *     infinite if it isn't heading there.
+     */
+    private double timeToSetpoint() {
+        double error = m_setpoint - m_leftInputs.getVelocity();
+        double remaining = Math.abs(error) - Constants.Shooter.kPIDTolerance;
+        if (remaining <= 0) return 0;
+        double closing = Math.signum(error) * m_acceleration;
+        return closing > 0 ? remaining / closing : Double.POSITIVE_INFINITY;
     }
 
-    public Trigger isShooterReady() {
-        Trigger atSetpoint = new Trigger(m_PID::atSetpoint);
-        Trigger setpointValid = new Trigger(() -> m_PID.getSetpoint() != 0);
-        return setpointValid.and(atSetpoint);
+    /**
+     * The note has left once the flywheel dips from its peak during the feed and the intake is no
+     * longer squeezing it. Records the button to exit latency when it has.
+     */
+    private boolean noteExited(Intake intake) {
+        double velocity = m_leftInputs.getVelocity();
+        m_feedPeak = Math.max(m_feedPeak, velocity);
+        boolean exited =
+                m_feedPeak - velocity >= Constants.Shooter.kShotDip
+                        && intake.getOutputCurrent() < Constants.Intake.kNoteCurrent;
+        if (exited) {
+            m_shotLatencySignal.set(Timer.getFPGATimestamp() - m_shotStart);
+        }
+        return exited;
+    }
+
+    private void setSetpoint(double rpm) {
+        m_setpoint = rpm;
+        m_PID.setSetpoint(rpm);
+    }
+
+    /** @return The rpm to shoot at from where we are, kShootRPM if we don't know. */
+    private double shotRPM() {
+        double distance = m_speakerDistance.getAsDouble();
+        return Double.isNaN(distance) ? Constants.Shooter.kShootRPM : m_shotRPM.get(distance);
+    }
+
+    private static LookupTable loadShotRPM() {
+        Path path = Filesystem.getDeployDirectory().toPath().resolve(Constants.Shooter.kRPMMapFile);
+        InterpolatingDoubleTreeMap map = new InterpolatingDoubleTreeMap();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        try {
+            for (String line : Files.readAllLines(path)) {
+                line = line.strip();
+                // Skip blank lines, comments and the header.
+                if (line.isEmpty() || !Character.isDigit(line.charAt(0))) continue;
+                String[] cells = line.split(",");
+                double distance = Double.parseDouble(cells[0].strip());
+                map.put(distance, Double.parseDouble(cells[1].strip()));
+                min = Math.min(min, distance);
+                max = Math.max(max, distance);
+            }
+        } catch (IOException | RuntimeException e) {
+            DriverStation.reportWarning("Failed to load " + path + ": " + e, false);
+        }
+
+        if (!(min < max)) {
+            DriverStation.reportWarning("Shooter rpm map needs two points, using kShootRPM", false);
+            return new LookupTable(0, 1, 2, distance -> Constants.Shooter.kShootRPM);
+        }
+        // Sample the map, so lookups each loop don't box through the tree map.
+        int samples = (int) Math.ceil((max - min) / Constants.Shooter.kRPMMapResolution) + 1;
+        return new LookupTable(min, max, samples, map::get);
+    }
+
+    /**
+     * Look up a shot from every distance in the rpm map and close the loop on a flywheel which
+     * spins up linearly, with a throwaway controller and without spinning, for the {@link
+     * JitWarmup}.
+     */
+    public void dryRun() {
+        m_dryRunPID.reset();
+        for (int i = 0; i < kDryRunLoops; i++) {
+            double rpm = m_shotRPM.get(i * kDryRunDistanceStep);
+            double velocity = rpm * i / kDryRunLoops;
+            m_dryRunPID.calculate(velocity, rpm);
+            m_dryRunPID.atSetpoint();
+        }
+    }
+
+    /** Switch between closing the velocity loop on the roboRIO and on the SparkMax. */
+    public void setClosedLoopLocation(ClosedLoopLocation location) {
+        m_closedLoopLocation = location;
+        m_PID.reset();
     }
 
     public Command disable() {
-        return run(m_left::stopMotor);
+        return run(m_io::stop).withName("Shooter.disable");
     }
 
     public Command prepShooter() {
-        return runOnce(() -> m_PID.setSetpoint(Constants.Shooter.kShootRPM));
+        return runOnce(
+                        () -> {
+                            m_spinUpStart = Timer.getFPGATimestamp();
+                            m_shotStart = m_spinUpStart;
+                            setSetpoint(shotRPM());
+                        })
+                .withName("Shooter.prepShooter");
     }
 
+    /**
+     * Feed once the flywheel is predicted to be in tolerance by the time the note reaches it, and
+     * stop feeding as soon as the note has left.
+     */
     public Command shootNote(Intake intake) {
         return prepShooter()
-                .andThen(Commands.waitUntil(isShooterReady()))
-                .andThen(intake.feedShooter().withTimeout(1));
+                .andThen(
+                        Commands.waitUntil(m_feedReady)
+                                .andThen(
+                                        Commands.runOnce(() -> m_feedPeak = 0),
+                                        intake.feedShooter()
+                                                .until(() -> noteExited(intake))
+                                                .withTimeout(Constants.Shooter.kFeedTimeout))
+                                .deadlineWith(pidControl()))
+                .withName("Shooter.shootNote");
     }
 
-    public Command pidControl() {
+    /**
+     * Pre-spin the flywheel a bit below shooting speed. Once we're close to the speaker, ramp to
+     * the shot rpm for our distance so there is little left to wait for when we shoot.
+     */
+    public Command idleControl() {
         return run(
-                () -> {
-                    double pidContribution = 12D * m_PID.calculate(m_encoder.getVelocity());
-                    m_left.setVoltage(pidContribution + Constants.Shooter.kFF);
-                });
+                        () -> {
+                            double distance = m_speakerDistance.getAsDouble();
+                            // NaN compares false, so an unknown distance idles.
+                            setSetpoint(
+                                    distance <= Constants.Shooter.kPreSpinDistance
+                                            ? m_shotRPM.get(distance)
+                                            : Constants.Shooter.kIdleRPM);
+                            closedLoop();
+                        })
+                .withName("Shooter.idleControl");
+    }
+
+    /** Hold the current setpoint. */
+    public Command pidControl() {
+        return run(this::closedLoop).withName("Shooter.pidControl");
+    }
+
+    private void closedLoop() {
+        double ffVolts = m_feedforward.calculate(m_setpoint / 60);
+        switch (m_closedLoopLocation) {
+            case ROBORIO -> {
+                // Same PID gains as onboard, so they are in duty cycle per rpm. Voltage
+                // compensation makes that a fraction of the nominal voltage, whatever the battery
+                // is at.
+                double output =
+                        m_PID.calculate(m_leftInputs.getVelocity())
+                                + ffVolts / Constants.Power.kNominalVoltage;
+                m_io.set(output);
+            }
+            case ONBOARD -> m_io.setVelocity(m_setpoint, ffVolts);
+        }
+    }
+
+    @Override
+    public Command sysIdQuasistatic(Direction direction) {
+        return m_sysId.quasistatic(direction).withName("Shooter.sysIdQuasistatic");
     }
 
-    /**
-     * TODO seth: create a method to keep the shooter at a constant but slightly less velocity than
-     * our shooter velocity. This should be the new default method. Eventually this should consider
-     * our distance from the speaker so that it automatically ramps up to shooting speed when we get
-     * closer. Not entirely relevant but also should look into using the InterpolatingMap or
-     * whatever its called, and some data we can create to find values for shooting from a distance.
-     */
     @Override
-    public void periodic() {}
+    public Command sysIdDynamic(Direction direction) {
+        return m_sysId.dynamic(direction).withName("Shooter.sysIdDynamic");
+    }
+
+    /** Rotations and rotations per second, the units the feedforward is in. */
+    private void recordSysId() {
+        m_sysIdLog.record(
+                0,
+                m_leftInputs.getAppliedOutput() * m_leftInputs.getBusVoltage(),
+                m_leftInputs.getPosition(),
+                m_leftInputs.getVelocity() / 60);
+    }
+
+    @Override
+    public void periodic() {
+        m_periodicProbe.start();
+        double velocity = m_leftInputs.getVelocity();
+        m_acceleration =
+                m_accelerationFilter.calculate(
+                        (velocity - m_lastVelocity) / TimedRobot.kDefaultPeriod);
+        m_lastVelocity = velocity;
+        if (!Double.isNaN(m_spinUpStart) && atSetpoint()) {
+            m_spinUpSignal.set(Timer.getFPGATimestamp() - m_spinUpStart);
+            m_spinUpStart = Double.NaN;
+        }
+        m_velocitySignal.set(velocity);
+        m_setpointSignal.set(m_setpoint);
+        m_closedLoopSignal.set(m_closedLoopLocation.name());
+        m_periodicProbe.stop();
+    }
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/** The shooter's hardware, two flywheel motors with the right following the left. */
+public interface ShooterIO {
+    /** The leader, its encoder reads the flywheel in motor rpm. */
+    SparkMaxInputs getLeaderInputs();
+
+    SparkMaxInputs getFollowerInputs();
+
+    /** @param output Fraction of the nominal voltage. */
+    void set(double output);
+
+    /**
+     * Close the velocity loop on the leader.
+     *
+     * @param ffVolts Feedforward added by the controller.
+     */
+    void setVelocity(double rpm, double ffVolts);
+
+    void stop();
+
+    /** Advance the physics a loop, only the sim has any. */
+    default void updateSim() {}
+}
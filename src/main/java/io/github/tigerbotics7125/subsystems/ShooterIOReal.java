@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkMax;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfig;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfigurator;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+import io.github.tigerbotics7125.tigerLib.SparkMaxOutput;
+
+public class ShooterIOReal implements ShooterIO {
+    protected final CANSparkMax m_left =
+            new CANSparkMax(Constants.Shooter.kLeftID, Constants.Shooter.kMotorType);
+    private final CANSparkMax m_right =
+            new CANSparkMax(Constants.Shooter.kRightID, Constants.Shooter.kMotorType);
+    private final SparkMaxOutput m_output =
+            new SparkMaxOutput(
+                    "Shooter/Left",
+                    m_left,
+                    Constants.CAN.kKeepAlivePeriod,
+                    Constants.CAN.kOutputTolerance);
+    // Every setpoint asked for, sent or not, named as the replay names its own.
+    private final Channel m_outputChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/Shooter/Output");
+    private final Channel m_velocityChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/Shooter/Velocity");
+    private final Channel m_ffChannel =
+            MatchLogger.getInstance().doubleChannel("/Outputs/Shooter/FF");
+
+    private final SparkMaxInputs m_leftInputs =
+            SensorSnapshot.getInstance().sparkMaxWithEncoder("Shooter/Left", m_left);
+    private final SparkMaxInputs m_rightInputs =
+            SensorSnapshot.getInstance().sparkMax("Shooter/Right", m_right);
+
+    public ShooterIOReal() {
+        SparkMaxConfigurator configurator = SparkMaxConfigurator.getInstance();
+        configurator.configure(
+                "Shooter/Left",
+                m_left,
+                new SparkMaxConfig()
+                        .currentLimit(Constants.Shooter.kCurrentLimit)
+                        .statusFrames(
+                                Constants.CAN.kFastFrame,
+                                Constants.CAN.kFastFrame,
+                                Constants.CAN.kSlowFrame)
+                        // Feedforward is sent with each setpoint, from the fitted gains.
+                        .pid(
+                                Constants.Shooter.kP,
+                                Constants.Shooter.kI,
+                                Constants.Shooter.kD,
+                                0)
+                        .voltageCompensation(Constants.Power.kNominalVoltage)
+                        .inverted(Constants.Shooter.kInvertedFollower));
+        configurator.configure(
+                "Shooter/Right",
+                m_right,
+                new SparkMaxConfig()
+                        .currentLimit(Constants.Shooter.kCurrentLimit)
+                        // Duty cycle and current, for PowerManager's battery current.
+                        .statusFrames(
+                                Constants.CAN.kDefaultFrame,
+                                Constants.CAN.kDefaultFrame,
+                                Constants.CAN.kSlowFrame)
+                        .follow(m_left));
+    }
+
+    @Override
+    public SparkMaxInputs getLeaderInputs() {
+        return m_leftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getFollowerInputs() {
+        return m_rightInputs;
+    }
+
+    @Override
+    public void set(double output) {
+        // Voltage compensated, so this is a fraction of the nominal voltage.
+        m_output.set(output);
+        m_outputChannel.set(output);
+    }
+
+    @Override
+    public void setVelocity(double rpm, double ffVolts) {
+        m_output.setReference(rpm, ControlType.kVelocity, ffVolts);
+        m_velocityChannel.set(rpm);
+        m_ffChannel.set(ffVolts);
+    }
+
+    @Override
+    public void stop() {
+        set(0);
+    }
+}
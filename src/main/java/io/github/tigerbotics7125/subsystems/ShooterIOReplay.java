@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxInputs;
+
+/** Readings from the replayed log, outputs are only recorded under "/Replay/Shooter". */
+public class ShooterIOReplay implements ShooterIO {
+    private final SparkMaxInputs m_leftInputs =
+            SensorSnapshot.getInstance().replayed("Shooter/Left", true);
+    private final SparkMaxInputs m_rightInputs =
+            SensorSnapshot.getInstance().replayed("Shooter/Right", false);
+
+    private final Channel m_outputChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/Shooter/Output");
+    private final Channel m_velocityChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/Shooter/Velocity");
+    private final Channel m_ffChannel =
+            MatchLogger.getInstance().doubleChannel("/Replay/Shooter/FF");
+
+    @Override
+    public SparkMaxInputs getLeaderInputs() {
+        return m_leftInputs;
+    }
+
+    @Override
+    public SparkMaxInputs getFollowerInputs() {
+        return m_rightInputs;
+    }
+
+    @Override
+    public void set(double output) {
+        m_outputChannel.set(output);
+    }
+
+    @Override
+    public void setVelocity(double rpm, double ffVolts) {
+        m_velocityChannel.set(rpm);
+        m_ffChannel.set(ffVolts);
+    }
+
+    @Override
+    public void stop() {
+        set(0);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.tigerLib.SparkMaxSim;
+
+/** The real controllers, simulated by REVLib, driving a flywheel model. */
+public class ShooterIOSim extends ShooterIOReal {
+    // Fraction of flywheel speed left after a simulated note goes through.
+    private static final double kSimShotLoss = .85;
+
+    private final SparkMaxSim m_leftSim = new SparkMaxSim(m_left, Constants.Power.kNominalVoltage);
+    private final FlywheelSim m_sim =
+            new FlywheelSim(DCMotor.getNEO(2), Constants.Shooter.kGearing, Constants.Shooter.kMOI);
+    private double m_position = 0;
+
+    @Override
+    public void updateSim() {
+        if (NoteSim.getInstance().takeShot()) {
+            // A note leaving takes a chunk of the flywheel's energy with it.
+            m_sim.setState(VecBuilder.fill(m_sim.getAngularVelocityRadPerSec() * kSimShotLoss));
+        }
+        m_sim.setInputVoltage(m_leftSim.getMotorVoltage());
+        m_sim.update(TimedRobot.kDefaultPeriod);
+        // Motor rpm and rotations, the encoder has no conversion factor.
+        double rpm = m_sim.getAngularVelocityRPM() * Constants.Shooter.kGearing;
+        m_position += rpm / 60 * TimedRobot.kDefaultPeriod;
+        m_leftSim.setState(m_position, rpm, m_sim.getCurrentDrawAmps());
+    }
+}
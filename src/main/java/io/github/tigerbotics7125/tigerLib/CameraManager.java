@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.first.cscore.CameraServerJNI;
+import edu.wpi.first.cscore.MjpegServer;
+import edu.wpi.first.cscore.UsbCamera;
+import edu.wpi.first.cscore.VideoEvent;
+import edu.wpi.first.cscore.VideoListener;
+import edu.wpi.first.cscore.VideoMode.PixelFormat;
+import edu.wpi.first.cscore.VideoSource.ConnectionStrategy;
+import edu.wpi.first.wpilibj.DriverStation;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.StringSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Streams the driver camera with a resolution, frame rate and JPEG quality per robot mode.
+ *
+ * <p>The camera is only opened while a dashboard is connected to the stream, so nothing is
+ * captured or encoded otherwise. Once a second the stream is checked, and if the main loop overran
+ * or the stream went over its bandwidth budget it steps down a level, halving the frame rate and
+ * lowering quality. It steps back up after a while of being healthy.
+ */
+public final class CameraManager {
+    private static final int kCheckPeriodCycles = 50;
+    private static final int kMaxLevel = 3;
+    private static final int kRecoverChecks = 10;
+    private static final int kMinFPS = 5;
+    private static final int kMinQuality = 10;
+    private static final int kQualityStep = 15;
+
+    /** @param quality JPEG quality, 0 to 100. */
+    public record Profile(int width, int height, int fps, int quality) {
+        /** @return This profile stepped down by the given number of levels. */
+        Profile degrade(int level) {
+            // Past the second level, halve the resolution too.
+            int scale = level > 1 ? 2 : 1;
+            return new Profile(
+                    width / scale,
+                    height / scale,
+                    Math.max(fps >> level, kMinFPS),
+                    Math.max(quality - level * kQualityStep, kMinQuality));
+        }
+    }
+
+    private static CameraManager s_instance;
+
+    private UsbCamera m_camera;
+    private MjpegServer m_server;
+    private VideoListener m_listener;
+    private Profile m_disabled;
+    private Profile m_autonomous;
+    private Profile m_teleop;
+    private double m_maxBytesPerSecond;
+
+    private volatile boolean m_streaming = false;
+    private Profile m_base = null;
+    private int m_level = 0;
+    private int m_healthyChecks = 0;
+    private int m_lastOverruns = 0;
+    private int m_cycle = 0;
+
+    private final com.sun.management.OperatingSystemMXBean m_os =
+            (com.sun.management.OperatingSystemMXBean)
+                    ManagementFactory.getOperatingSystemMXBean();
+
+    private final Telemetry m_telemetry = Telemetry.getInstance();
+    private final DoubleSignal m_bytesSignal =
+            m_telemetry.doubleSignal("/Camera/BytesPerSecond", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_fpsSignal =
+            m_telemetry.doubleSignal("/Camera/FPS", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_cpuSignal =
+            m_telemetry.doubleSignal("/Camera/ProcessCPU", Tier.DIAGNOSTIC);
+    private final IntegerSignal m_levelSignal =
+            m_telemetry.integerSignal("/Camera/DegradeLevel", Tier.DIAGNOSTIC);
+    private final StringSignal m_profileSignal =
+            m_telemetry.stringSignal("/Camera/Profile", Tier.STATIC);
+
+    private CameraManager() {}
+
+    public static synchronized CameraManager getInstance() {
+        if (s_instance == null) {
+            s_instance = new CameraManager();
+        }
+        return s_instance;
+    }
+
+    /**
+     * Start the driver camera, it won't be opened until a dashboard connects.
+     *
+     * @param maxBytesPerSecond The stream's share of the radio bandwidth.
+     */
+    public void start(
+            Profile disabled, Profile autonomous, Profile teleop, double maxBytesPerSecond) {
+        m_disabled = disabled;
+        m_autonomous = autonomous;
+        m_teleop = teleop;
+        m_maxBytesPerSecond = maxBytesPerSecond;
+
+        m_camera = CameraServer.startAutomaticCapture();
+        m_server = (MjpegServer) CameraServer.getServer();
+        // Capture MJPEG at the largest profile, the server scales and re-encodes from there.
+        int width = Math.max(disabled.width(), Math.max(autonomous.width(), teleop.width()));
+        int height = Math.max(disabled.height(), Math.max(autonomous.height(), teleop.height()));
+        int fps = Math.max(disabled.fps(), Math.max(autonomous.fps(), teleop.fps()));
+        m_camera.setVideoMode(PixelFormat.kMJPEG, width, height, fps);
+        m_camera.setConnectionStrategy(ConnectionStrategy.kAutoManage);
+
+        int serverHandle = m_server.getHandle();
+        m_listener =
+                new VideoListener(
+                        event -> {
+                            if (event.sinkHandle != serverHandle) return;
+                            m_streaming = event.kind == VideoEvent.Kind.kSinkEnabled;
+                        },
+                        VideoEvent.Kind.kSinkEnabled.getValue()
+                                | VideoEvent.Kind.kSinkDisabled.getValue(),
+                        true);
+        // Needed for the camera's measured data rate and frame rate.
+        CameraServerJNI.setTelemetryPeriod(1);
+    }
+
+    /** Call once per loop, the stream is only checked once a second. */
+    public void update() {
+        if (m_camera == null || m_cycle++ % kCheckPeriodCycles != 0) return;
+
+        double bytesPerSecond = m_streaming ? m_camera.getActualDataRate() : 0;
+        m_bytesSignal.set(bytesPerSecond);
+        m_fpsSignal.set(m_streaming ? m_camera.getActualFPS() : 0);
+        m_cpuSignal.set(m_os.getProcessCpuLoad() * 100);
+
+        int overruns = LoopProfiler.getInstance().getOverruns();
+        boolean overran = overruns != m_lastOverruns;
+        m_lastOverruns = overruns;
+
+        int level = m_level;
+        if (m_streaming && (overran || bytesPerSecond > m_maxBytesPerSecond)) {
+            level = Math.min(level + 1, kMaxLevel);
+            m_healthyChecks = 0;
+        } else if (++m_healthyChecks >= kRecoverChecks) {
+            level = Math.max(level - 1, 0);
+            m_healthyChecks = 0;
+        }
+
+        Profile base =
+                DriverStation.isDisabled()
+                        ? m_disabled
+                        : DriverStation.isAutonomous() ? m_autonomous : m_teleop;
+        if (base != m_base || level != m_level) {
+            m_base = base;
+            m_level = level;
+            apply(base.degrade(level));
+        }
+    }
+
+    private void apply(Profile profile) {
+        m_server.setResolution(profile.width(), profile.height());
+        m_server.setFPS(profile.fps());
+        m_server.setCompression(profile.quality());
+        m_levelSignal.set(m_level);
+        m_profileSignal.set(profile.toString());
+    }
+}
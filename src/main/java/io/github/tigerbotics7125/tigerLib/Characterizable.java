@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
+
+/** A subsystem with SysId tests, recorded by a {@link SysIdLog} to fit its feedforward. */
+public interface Characterizable {
+    /** Ramp the voltage slowly, measuring kS and kV (and kG). */
+    Command sysIdQuasistatic(Direction direction);
+
+    /** Step the voltage, measuring kA. */
+    Command sysIdDynamic(Direction direction);
+}
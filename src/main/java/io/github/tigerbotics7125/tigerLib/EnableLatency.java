@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Times each enable, from the mode's init to the first frame any {@link SparkMaxOutput} sends.
+ * That is everything the robot does before a motor can move, building commands and a cold JIT
+ * included. Published under "/Enable/" followed by the mode, i.e. "/Enable/AutoToOutputMs".
+ *
+ * <p>Frames may be sent from a Notifier, so the time is only recorded when the frame is sent, and
+ * published by the main loop's {@link Telemetry#update()}.
+ */
+public final class EnableLatency {
+    private static EnableLatency s_instance;
+
+    private final Map<String, DoubleSignal> m_signals = new HashMap<>();
+    private DoubleSignal m_pending = null;
+    private long m_enabledAt = 0;
+    private double m_latencyMs = Double.NaN;
+
+    private EnableLatency() {
+        Telemetry.getInstance().addSampler(this::publish);
+    }
+
+    public static synchronized EnableLatency getInstance() {
+        if (s_instance == null) {
+            s_instance = new EnableLatency();
+        }
+        return s_instance;
+    }
+
+    /** Call first thing in a mode's init. @param mode Name to report under, i.e. "Auto". */
+    public synchronized void enabled(String mode) {
+        m_pending =
+                m_signals.computeIfAbsent(
+                        mode,
+                        name ->
+                                Telemetry.getInstance()
+                                        .doubleSignal(
+                                                "/Enable/" + name + "ToOutputMs", Tier.STATIC));
+        m_enabledAt = System.nanoTime();
+        m_latencyMs = Double.NaN;
+    }
+
+    /** Called by {@link SparkMaxOutput} for every frame it sends, from any thread. */
+    synchronized void output() {
+        if (m_pending == null || !Double.isNaN(m_latencyMs)) return;
+        m_latencyMs = (System.nanoTime() - m_enabledAt) / 1E6;
+    }
+
+    private synchronized void publish() {
+        if (m_pending == null || Double.isNaN(m_latencyMs)) return;
+        m_pending.set(m_latencyMs);
+        m_pending = null;
+    }
+}
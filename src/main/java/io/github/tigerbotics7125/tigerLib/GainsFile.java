@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Gains fitted off the robot, such as feedforward from SysId, read from a deploy file so a new fit
+ * only needs a deploy. Keys are the mechanism then the gain, i.e. "arm.kG". A gain the file
+ * doesn't have falls back to the compiled in one, as does every gain if there's no file. So does a
+ * gain which isn't a finite number, or every gain if the file can't be read, with a warning.
+ */
+public final class GainsFile {
+    private final Map<String, Double> m_gains = new HashMap<>();
+    private final List<String> m_warnings = new ArrayList<>();
+
+    /**
+     * Warnings are reported to the driver station.
+     *
+     * @param file Name of the file in the deploy directory.
+     * @param mechanism Prefix of this mechanism's keys, i.e. "arm".
+     */
+    public GainsFile(String file, String mechanism) {
+        this(Filesystem.getDeployDirectory().toPath().resolve(file), mechanism);
+        for (String warning : m_warnings) {
+            DriverStation.reportWarning(warning, false);
+        }
+    }
+
+    /**
+     * For use off the robot, such as at build time, where the deploy directory isn't known and
+     * there's no driver station. Warnings are only kept, see {@link #getWarnings()}.
+     */
+    public GainsFile(Path path, String mechanism) {
+        Properties file = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            file.load(reader);
+        } catch (NoSuchFileException e) {
+            // Nothing fitted yet.
+        } catch (IOException | RuntimeException e) {
+            // Whatever was read before the error can't be trusted.
+            file.clear();
+            m_warnings.add("Failed to load " + path + ": " + e);
+        }
+
+        String prefix = mechanism + ".";
+        for (String key : file.stringPropertyNames()) {
+            if (!key.startsWith(prefix)) continue;
+            String value = file.getProperty(key);
+            try {
+                double gain = Double.parseDouble(value.strip());
+                if (!Double.isFinite(gain)) throw new NumberFormatException();
+                m_gains.put(key.substring(prefix.length()), gain);
+            } catch (NumberFormatException e) {
+                m_warnings.add("Bad gain " + key + "=" + value + ", using its constant");
+            }
+        }
+    }
+
+    /** @return True if the file has any usable gain for this mechanism. */
+    public boolean isFitted() {
+        return !m_gains.isEmpty();
+    }
+
+    /** @return The fitted gain, or fallback if there isn't one. */
+    public double get(String gain, double fallback) {
+        return m_gains.getOrDefault(gain, fallback);
+    }
+
+    /** @return What was wrong with the file, each affected gain uses its fallback. */
+    public List<String> getWarnings() {
+        return Collections.unmodifiableList(m_warnings);
+    }
+}
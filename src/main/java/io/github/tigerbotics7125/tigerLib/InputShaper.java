@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.SlewRateLimiter;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Shapes a joystick axis with a deadband, an expo curve and a slew rate limit. The deadband and
+ * expo are sampled into a {@link LookupTable} up front, so each loop is an interpolation and the
+ * slew limiter.
+ */
+public class InputShaper implements DoubleSupplier {
+    private static final int kSamples = 201;
+
+    /**
+     * @param deadband Inputs smaller than this are zero, the rest is rescaled to start from zero.
+     * @param expo 0 is linear, 1 is fully cubic, for finer control near center.
+     * @param slewRate Most the output may change per second, 0 for no limit.
+     */
+    public record Config(double deadband, double expo, double slewRate) {
+        /** @return The deadband and expo curve, without the slew rate limit. */
+        public double curve(double input) {
+            double value = MathUtil.applyDeadband(input, deadband);
+            return (1 - expo) * value + expo * value * value * value;
+        }
+    }
+
+    private final DoubleSupplier m_input;
+    private final LookupTable m_curve;
+    private final SlewRateLimiter m_slew;
+
+    public InputShaper(DoubleSupplier input, Config config) {
+        m_input = input;
+        m_curve = new LookupTable(-1, 1, kSamples, config::curve);
+        m_slew = config.slewRate() > 0 ? new SlewRateLimiter(config.slewRate()) : null;
+    }
+
+    @Override
+    public double getAsDouble() {
+        double value = m_curve.get(m_input.getAsDouble());
+        return m_slew != null ? m_slew.calculate(value) : value;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import io.github.tigerbotics7125.tigerLib.Telemetry.BooleanSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the robot's hot paths while it's disabled, so the JIT has compiled them before the first
+ * enabled loop needs them. A task is one dry run pass over some code with made up inputs. It must
+ * not command a motor or change anything the enabled robot reads, so it works on throwaway
+ * controllers rather than the subsystem's own.
+ *
+ * <p>Tasks take turns, a time budget each loop, until every one has run its passes. A task which
+ * throws is dropped, a warm-up is never worth a crash.
+ */
+public final class JitWarmup {
+    private static JitWarmup s_instance;
+
+    private static final class Task {
+        private final String m_name;
+        private final Runnable m_pass;
+        private int m_passes = 0;
+
+        private Task(String name, Runnable pass) {
+            m_name = name;
+            m_pass = pass;
+        }
+    }
+
+    private final List<Task> m_tasks = new ArrayList<>();
+    private int m_next = 0;
+    private long m_passes = 0;
+
+    private final IntegerSignal m_passesSignal =
+            Telemetry.getInstance().integerSignal("/Warmup/Passes", Tier.STATIC);
+    private final BooleanSignal m_doneSignal =
+            Telemetry.getInstance().booleanSignal("/Warmup/Done", Tier.STATIC);
+
+    private JitWarmup() {}
+
+    public static synchronized JitWarmup getInstance() {
+        if (s_instance == null) {
+            s_instance = new JitWarmup();
+        }
+        return s_instance;
+    }
+
+    /** @param pass One dry run of the code to warm up. */
+    public void add(String name, Runnable pass) {
+        m_tasks.add(new Task(name, pass));
+    }
+
+    /**
+     * Run tasks until the budget is spent, call from disabledPeriodic().
+     *
+     * @param passes Passes each task needs before it's warm.
+     * @param budgetSeconds Most time to spend this call, the pass which crosses it still finishes.
+     * @return True once every task is warm.
+     */
+    public boolean run(int passes, double budgetSeconds) {
+        long deadline = System.nanoTime() + (long) (budgetSeconds * 1E9);
+        int cold = m_tasks.size();
+        while (cold > 0 && System.nanoTime() < deadline) {
+            cold = 0;
+            for (int i = 0; i < m_tasks.size(); i++) {
+                if (m_tasks.get(i).m_passes < passes) cold++;
+            }
+            if (cold == 0) break;
+
+            Task task = m_tasks.get(m_next);
+            m_next = (m_next + 1) % m_tasks.size();
+            if (task.m_passes >= passes) continue;
+            try {
+                task.m_pass.run();
+                task.m_passes++;
+                m_passes++;
+            } catch (RuntimeException e) {
+                DriverStation.reportWarning("Warm-up " + task.m_name + " failed: " + e, false);
+                m_tasks.remove(task);
+                m_next = 0;
+                cold--;
+            }
+        }
+        m_passesSignal.set(m_passes);
+        m_doneSignal.set(cold == 0);
+        return cold == 0;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DataLogRecord.StartRecordData;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A recorded wpilog, played back a loop at a time.
+ *
+ * <p>Loops are found from the {@link MatchLogger}'s loop counter. A {@link Channel} read during a
+ * loop returns the value its entry had at the end of that loop, so the replayed code sees what the
+ * robot did. The driver station's state and joysticks, which the robot logs as it reads them, are
+ * replayed through the simulated driver station.
+ *
+ * <p>Only one log is replayed per run. Once it has been {@link #load(Path) loaded}, subsystems are
+ * built with their replay IO and {@link SensorSnapshot} reads from here instead of the CAN bus.
+ */
+public final class LogReplay {
+    /** Whether we were red, logged by the robot as the driver station doesn't. */
+    public static final String kRedChannel = "/Inputs/DS/Red";
+    /** The ClosedLoopLocation ordinal the arm and shooter ran with, chosen on the dashboard. */
+    public static final String kClosedLoopLocationChannel = "/Inputs/ClosedLoopLocation";
+
+    private static LogReplay s_instance;
+
+    /** Every record of one entry, in time order. */
+    private static final class Series {
+        private long[] m_timestamps = new long[64];
+        private double[] m_values = new double[64];
+        private Object[] m_arrays = null;
+        private int m_count = 0;
+
+        private void add(long timestamp, double value, Object array) {
+            if (m_count == m_timestamps.length) {
+                m_timestamps = Arrays.copyOf(m_timestamps, m_count * 2);
+                m_values = Arrays.copyOf(m_values, m_count * 2);
+                if (m_arrays != null) m_arrays = Arrays.copyOf(m_arrays, m_count * 2);
+            }
+            if (array != null && m_arrays == null) {
+                m_arrays = new Object[m_timestamps.length];
+            }
+            m_timestamps[m_count] = timestamp;
+            m_values[m_count] = value;
+            if (array != null) m_arrays[m_count] = array;
+            m_count++;
+        }
+    }
+
+    /** One entry of the log, read at the current loop. Each has its own cursor. */
+    public final class Channel {
+        private final Series m_series;
+        private int m_next = 0;
+
+        private Channel(Series series) {
+            m_series = series;
+        }
+
+        /** @return Index of the last record at or before the current loop, -1 if none. */
+        private int seek() {
+            long now = m_loopTimestamp;
+            // Loops only move forward, so this is a step or two each loop.
+            while (m_next < m_series.m_count && m_series.m_timestamps[m_next] <= now) {
+                m_next++;
+            }
+            return m_next - 1;
+        }
+
+        /** @return The value at the current loop, 0 before the first record. */
+        public double get() {
+            int index = seek();
+            return index >= 0 ? m_series.m_values[index] : 0;
+        }
+
+        /** @return The array at the current loop, null before the first record. */
+        Object getArray() {
+            int index = seek();
+            return index >= 0 && m_series.m_arrays != null ? m_series.m_arrays[index] : null;
+        }
+    }
+
+    private final Map<String, Series> m_series = new HashMap<>();
+    private final long[] m_loops;
+    private int m_loop = -1;
+    private long m_loopTimestamp = Long.MIN_VALUE;
+
+    private final Channel m_enabled;
+    private final Channel m_autonomous;
+    private final Channel m_test;
+    private final Channel m_estop;
+    private final Channel m_red;
+    private final Channel[] m_axes = new Channel[DriverStation.kJoystickPorts];
+    private final Channel[] m_buttons = new Channel[DriverStation.kJoystickPorts];
+    private final Channel[] m_povs = new Channel[DriverStation.kJoystickPorts];
+
+    private LogReplay(Path path) throws IOException {
+        DataLogReader reader = new DataLogReader(path.toString());
+        if (!reader.isValid()) throw new IOException(path + " isn't a wpilog");
+
+        Map<Integer, Series> entries = new HashMap<>();
+        Map<Integer, String> types = new HashMap<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                StartRecordData start = record.getStartData();
+                entries.put(start.entry, m_series.computeIfAbsent(start.name, n -> new Series()));
+                types.put(start.entry, start.type);
+                continue;
+            }
+            if (record.isControl()) continue;
+            Series series = entries.get(record.getEntry());
+            if (series == null) continue;
+            long timestamp = record.getTimestamp();
+            switch (types.get(record.getEntry())) {
+                case "double" -> series.add(timestamp, record.getDouble(), null);
+                case "float" -> series.add(timestamp, record.getFloat(), null);
+                case "int64" -> series.add(timestamp, record.getInteger(), null);
+                case "boolean" -> series.add(timestamp, record.getBoolean() ? 1 : 0, null);
+                case "float[]" -> series.add(timestamp, 0, record.getFloatArray());
+                case "boolean[]" -> series.add(timestamp, 0, record.getBooleanArray());
+                case "int64[]" -> series.add(timestamp, 0, record.getIntegerArray());
+                default -> {} // Strings and raw data aren't replayed.
+            }
+        }
+
+        Series loops = m_series.get(MatchLogger.kLoopChannel);
+        if (loops == null || loops.m_count == 0) {
+            throw new IOException(path + " has no " + MatchLogger.kLoopChannel + " to replay by");
+        }
+        m_loops = Arrays.copyOf(loops.m_timestamps, loops.m_count);
+
+        m_enabled = channel("DS:enabled");
+        m_autonomous = channel("DS:autonomous");
+        m_test = channel("DS:test");
+        m_estop = channel("DS:estop");
+        m_red = channel(kRedChannel);
+        for (int stick = 0; stick < DriverStation.kJoystickPorts; stick++) {
+            String prefix = "DS:joystick" + stick;
+            m_axes[stick] = optionalChannel(prefix + "/axes");
+            m_buttons[stick] = optionalChannel(prefix + "/buttons");
+            m_povs[stick] = optionalChannel(prefix + "/povs");
+        }
+    }
+
+    /** Read a log to replay, call before the robot is constructed. */
+    public static synchronized LogReplay load(Path path) throws IOException {
+        if (s_instance != null) throw new IllegalStateException("A log is already being replayed");
+        s_instance = new LogReplay(path);
+        return s_instance;
+    }
+
+    /** @return True if a log is being replayed rather than running on hardware or the sim. */
+    public static synchronized boolean isActive() {
+        return s_instance != null;
+    }
+
+    /** @return The log being replayed, null if there isn't one. */
+    public static synchronized LogReplay getInstance() {
+        return s_instance;
+    }
+
+    /** @param name Entry name, i.e. "/Inputs/Arm/Left/Position". */
+    public Channel channel(String name) {
+        Series series = m_series.get(name);
+        if (series == null) {
+            DriverStation.reportWarning("Replayed log has no " + name + ", reading 0", false);
+            series = new Series();
+        }
+        return new Channel(series);
+    }
+
+    /** A channel which is expected to be missing, such as an unplugged joystick. */
+    private Channel optionalChannel(String name) {
+        return new Channel(m_series.getOrDefault(name, new Series()));
+    }
+
+    /** @return Number of loops in the log. */
+    public int getLoopCount() {
+        return m_loops.length;
+    }
+
+    /** Move on to the next loop. @return False once every loop has been replayed. */
+    public boolean next() {
+        if (m_loop + 1 >= m_loops.length) return false;
+        m_loopTimestamp = m_loops[++m_loop];
+        return true;
+    }
+
+    /** @return FPGA time in seconds the current loop was recorded at. */
+    public double getTimestamp() {
+        return m_loopTimestamp / 1E6;
+    }
+
+    /** Set the simulated driver station to how it was at the current loop. */
+    public void applyDriverStation() {
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(m_enabled.get() != 0);
+        DriverStationSim.setAutonomous(m_autonomous.get() != 0);
+        DriverStationSim.setTest(m_test.get() != 0);
+        DriverStationSim.setEStop(m_estop.get() != 0);
+        DriverStationSim.setAllianceStationId(
+                m_red.get() != 0 ? AllianceStationID.Red1 : AllianceStationID.Blue1);
+        for (int stick = 0; stick < DriverStation.kJoystickPorts; stick++) {
+            if (m_axes[stick].getArray() instanceof float[] axes) {
+                DriverStationSim.setJoystickAxisCount(stick, axes.length);
+                for (int i = 0; i < axes.length; i++) {
+                    DriverStationSim.setJoystickAxis(stick, i, axes[i]);
+                }
+            }
+            if (m_buttons[stick].getArray() instanceof boolean[] buttons) {
+                int mask = 0;
+                for (int i = 0; i < buttons.length; i++) {
+                    if (buttons[i]) mask |= 1 << i;
+                }
+                DriverStationSim.setJoystickButtonCount(stick, buttons.length);
+                DriverStationSim.setJoystickButtons(stick, mask);
+            }
+            if (m_povs[stick].getArray() instanceof long[] povs) {
+                DriverStationSim.setJoystickPOVCount(stick, povs.length);
+                for (int i = 0; i < povs.length; i++) {
+                    DriverStationSim.setJoystickPOV(stick, i, (int) povs[i]);
+                }
+            }
+        }
+        DriverStationSim.notifyNewData();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.math.MathUtil;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A function sampled evenly over a range once, then evaluated by linear interpolation between the
+ * samples. Lookups are primitive only, so they never allocate.
+ */
+public class LookupTable {
+    private final double m_min;
+    private final double m_max;
+    private final double m_step;
+    private final double[] m_samples;
+
+    /**
+     * @param min Smallest input, lower inputs are clamped to it.
+     * @param max Largest input, higher inputs are clamped to it.
+     * @param samples Number of samples to take, at least 2.
+     * @param function The function to sample.
+     */
+    public LookupTable(double min, double max, int samples, DoubleUnaryOperator function) {
+        m_min = min;
+        m_max = max;
+        m_step = (max - min) / (samples - 1);
+        m_samples = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            m_samples[i] = function.applyAsDouble(min + i * m_step);
+        }
+    }
+
+    public double get(double input) {
+        double index = (MathUtil.clamp(input, m_min, m_max) - m_min) / m_step;
+        int lower = Math.min((int) index, m_samples.length - 2);
+        return MathUtil.interpolate(m_samples[lower], m_samples[lower + 1], index - lower);
+    }
+}
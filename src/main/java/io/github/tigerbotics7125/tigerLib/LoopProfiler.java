@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times every subsystem periodic() and command execute() each loop, keeping a rolling window of
+ * samples per probe to report p50/p99/max. When a loop overruns, the probe which took the longest
+ * that cycle is blamed.
+ */
+public final class LoopProfiler {
+    private static final int kWindow = 250; // 5 seconds of loops.
+    private static final int kPublishPeriodCycles = 25;
+    private static final long kLoopPeriodNanos = (long) (TimedRobot.kDefaultPeriod * 1E9);
+
+    private static LoopProfiler s_instance;
+
+    public final class Probe {
+        private final String m_name;
+        private final long[] m_window = new long[kWindow];
+        private int m_index = 0;
+        private int m_count = 0;
+
+        private long m_start = 0;
+        private long m_cycleNanos = 0;
+        private boolean m_ran = false;
+        private int m_overruns = 0;
+
+        private final DoubleSignal m_p50;
+        private final DoubleSignal m_p99;
+        private final DoubleSignal m_max;
+        private final IntegerSignal m_overrunSignal;
+
+        private Probe(String name) {
+            m_name = name;
+            Telemetry telemetry = Telemetry.getInstance();
+            String prefix = "/Loop/" + name;
+            m_p50 = telemetry.doubleSignal(prefix + "/p50Ms", Tier.DIAGNOSTIC);
+            m_p99 = telemetry.doubleSignal(prefix + "/p99Ms", Tier.DIAGNOSTIC);
+            m_max = telemetry.doubleSignal(prefix + "/MaxMs", Tier.DIAGNOSTIC);
+            m_overrunSignal = telemetry.integerSignal(prefix + "/Overruns", Tier.DIAGNOSTIC);
+        }
+
+        public void start() {
+            m_start = System.nanoTime();
+        }
+
+        public void stop() {
+            long now = System.nanoTime();
+            add(now - m_start);
+            m_lastMark = now;
+        }
+
+        private void add(long nanos) {
+            m_cycleNanos += nanos;
+            m_ran = true;
+        }
+
+        private void commit() {
+            if (!m_ran) return;
+            m_window[m_index] = m_cycleNanos;
+            m_index = (m_index + 1) % kWindow;
+            m_count = Math.min(m_count + 1, kWindow);
+            m_cycleNanos = 0;
+            m_ran = false;
+        }
+    }
+
+    private final List<Probe> m_probes = new ArrayList<>();
+    private final Map<String, Probe> m_named = new HashMap<>();
+    // By command name, not instance, so recomposed autos and proxied commands reuse their probe.
+    private final Map<String, Probe> m_commandProbes = new HashMap<>();
+    private final long[] m_scratch = new long[kWindow];
+    private final IntegerSignal m_overrunSignal =
+            Telemetry.getInstance().integerSignal("/Loop/Overruns", Tier.DIAGNOSTIC);
+    private final Probe m_loopProbe = probe("Loop");
+
+    private long m_lastMark = 0;
+    private int m_cycle = 0;
+    private int m_overruns = 0;
+
+    private LoopProfiler() {}
+
+    public static synchronized LoopProfiler getInstance() {
+        if (s_instance == null) {
+            s_instance = new LoopProfiler();
+        }
+        return s_instance;
+    }
+
+    /**
+     * @return The probe for the caller to wrap its work with start() and stop(), shared by
+     *     everything which asks for the same name.
+     */
+    public Probe probe(String name) {
+        Probe probe = m_named.get(name);
+        if (probe == null) {
+            probe = new Probe(name);
+            m_probes.add(probe);
+            m_named.put(name, probe);
+        }
+        return probe;
+    }
+
+    /**
+     * Start timing command execution. Call once all button bindings are made, so the marker this
+     * binds runs after every other binding.
+     */
+    public void install() {
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        // Button polling happens between subsystem periodics and commands, exclude it.
+        scheduler.getDefaultButtonLoop().bind(() -> m_lastMark = System.nanoTime());
+        scheduler.onCommandExecute(this::commandExecuted);
+    }
+
+    /** Commands are told apart by name, give each one its own with withName(). */
+    private void commandExecuted(Command command) {
+        Probe probe = m_commandProbes.get(command.getName());
+        if (probe == null) {
+            probe = probe(command.getName() + ".execute()");
+            m_commandProbes.put(command.getName(), probe);
+        }
+        long now = System.nanoTime();
+        probe.add(now - m_lastMark);
+        m_lastMark = now;
+    }
+
+    /** @return Loops which have overrun since startup. */
+    public int getOverruns() {
+        return m_overruns;
+    }
+
+    /** Call at the very start of robotPeriodic(). */
+    public void beginCycle() {
+        m_loopProbe.start();
+        m_lastMark = m_loopProbe.m_start;
+    }
+
+    /**
+     * Call at the very end of robotPeriodic(), after telemetry and logging so they're timed too.
+     * What this publishes goes out with the next loop's.
+     */
+    public void endCycle() {
+        m_loopProbe.stop();
+        long loopNanos = m_loopProbe.m_cycleNanos;
+
+        Probe worst = null;
+        for (int i = 0; i < m_probes.size(); i++) {
+            Probe probe = m_probes.get(i);
+            if (probe != m_loopProbe
+                    && probe.m_ran
+                    && (worst == null || probe.m_cycleNanos > worst.m_cycleNanos)) {
+                worst = probe;
+            }
+        }
+        if (loopNanos > kLoopPeriodNanos && worst != null) {
+            m_overruns++;
+            worst.m_overruns++;
+            DriverStation.reportWarning(
+                    String.format(
+                            "Loop overrun (%.1f ms), worst offender %s (%.1f ms)",
+                            loopNanos / 1E6, worst.m_name, worst.m_cycleNanos / 1E6),
+                    false);
+        }
+
+        for (int i = 0; i < m_probes.size(); i++) {
+            m_probes.get(i).commit();
+        }
+
+        if (++m_cycle % kPublishPeriodCycles == 0) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        m_overrunSignal.set(m_overruns);
+        for (int i = 0; i < m_probes.size(); i++) {
+            Probe probe = m_probes.get(i);
+            if (probe.m_count == 0) continue;
+            System.arraycopy(probe.m_window, 0, m_scratch, 0, probe.m_count);
+            Arrays.sort(m_scratch, 0, probe.m_count);
+            probe.m_p50.set(percentile(probe.m_count, .5) / 1E6);
+            probe.m_p99.set(percentile(probe.m_count, .99) / 1E6);
+            probe.m_max.set(m_scratch[probe.m_count - 1] / 1E6);
+            probe.m_overrunSignal.set(probe.m_overruns);
+        }
+    }
+
+    /** Nearest rank percentile of the first count entries of the sorted scratch array. */
+    private long percentile(int count, double percentile) {
+        int rank = (int) Math.ceil(percentile * count);
+        return m_scratch[Math.max(rank - 1, 0)];
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every channel, every loop, to a wpilog file.
+ *
+ * <p>The main loop only copies the loop's values into a preallocated ring buffer. A background
+ * thread drains the ring into the {@link DataLog} (USB stick if present, otherwise local disk),
+ * only writing values which changed. If the writer falls behind and the ring fills, loops are
+ * dropped and counted rather than blocking.
+ *
+ * <p>Every loop also records a counter under {@value #kLoopChannel}, which always changes, so
+ * {@link LogReplay} can find each loop's timestamp.
+ */
+public final class MatchLogger {
+    private static final int kMaxChannels = 384;
+    private static final int kSlots = 128; // About 2.5 seconds of loops.
+    // Each record is the timestamp, the channel count at the time, then the values.
+    private static final int kRecordSize = kMaxChannels + 2;
+    private static final long kWriterPeriodNanos = 20_000_000;
+
+    static final String kLoopChannel = "/Logger/Loop";
+
+    private enum Kind {
+        DOUBLE,
+        BOOLEAN,
+        INTEGER;
+    }
+
+    public static final class Channel {
+        private final MatchLogger m_logger;
+        private final int m_index;
+
+        private Channel(MatchLogger logger, int index) {
+            m_logger = logger;
+            m_index = index;
+        }
+
+        /** NaN is logged like any other value. */
+        public void set(double value) {
+            if (m_index < 0) return;
+            m_logger.m_staging[m_index + 2] = value;
+            // Loops are counted as they're committed, the next one is the first with a value.
+            long[] firstLoop = m_logger.m_firstLoop;
+            if (firstLoop[m_index] == 0) firstLoop[m_index] = m_logger.m_loops + 1;
+        }
+
+        public void set(boolean value) {
+            set(value ? 1D : 0D);
+        }
+
+        public void set(long value) {
+            set((double) value);
+        }
+    }
+
+    private static MatchLogger s_instance;
+
+    private final String[] m_names = new String[kMaxChannels];
+    private final Kind[] m_kinds = new Kind[kMaxChannels];
+    private volatile int m_channelCount = 0;
+
+    // Owned by the main loop.
+    private final double[] m_staging = new double[kRecordSize];
+    private final double[] m_ring = new double[kSlots * kRecordSize];
+    // The loop each channel was first set for, 0 until then. Published to the writer by
+    // m_writeIndex, along with the first record that has a value.
+    private final long[] m_firstLoop = new long[kMaxChannels];
+    private volatile long m_writeIndex = 0;
+    private long m_dropped = 0;
+    private long m_maxOccupancy = 0;
+    private IntegerSignal m_droppedSignal;
+    private IntegerSignal m_occupancySignal;
+    private IntegerSignal m_maxOccupancySignal;
+    private Channel m_loopChannel;
+    private long m_loops = 0;
+    private boolean m_lossless = false;
+
+    // Owned by the writer thread.
+    private final DataLogEntry[] m_entries = new DataLogEntry[kMaxChannels];
+    private final double[] m_lastWritten = new double[kMaxChannels];
+    private final boolean[] m_written = new boolean[kMaxChannels];
+    private volatile long m_readIndex = 0;
+    private DataLog m_log;
+    private Thread m_writer;
+
+    private boolean m_started = false;
+
+    private MatchLogger() {}
+
+    public static synchronized MatchLogger getInstance() {
+        if (s_instance == null) {
+            s_instance = new MatchLogger();
+        }
+        return s_instance;
+    }
+
+    public Channel doubleChannel(String name) {
+        return add(name, Kind.DOUBLE);
+    }
+
+    public Channel booleanChannel(String name) {
+        return add(name, Kind.BOOLEAN);
+    }
+
+    public Channel integerChannel(String name) {
+        return add(name, Kind.INTEGER);
+    }
+
+    private synchronized Channel add(String name, Kind kind) {
+        int index = m_channelCount;
+        if (index >= kMaxChannels) {
+            DriverStation.reportWarning("MatchLogger is full, not logging " + name, false);
+            return new Channel(this, -1);
+        }
+        m_names[index] = name;
+        m_kinds[index] = kind;
+        // Publishes the name and kind to the writer thread.
+        m_channelCount = index + 1;
+        return new Channel(this, index);
+    }
+
+    /** Open the log and start the writer thread. */
+    public void start() {
+        start("", "");
+    }
+
+    /**
+     * @param dir Directory to write to, empty for the default.
+     * @param filename Name of the log, empty to name it from the date and match.
+     */
+    public synchronized void start(String dir, String filename) {
+        if (m_started) return;
+        m_started = true;
+
+        DataLogManager.start(dir, filename);
+        // Telemetry is already logged here, at full rate.
+        DataLogManager.logNetworkTables(false);
+        m_log = DataLogManager.getLog();
+        DriverStation.startDataLog(m_log);
+
+        Telemetry telemetry = Telemetry.getInstance();
+        m_droppedSignal = telemetry.integerSignal("/Logger/DroppedLoops", Tier.DIAGNOSTIC);
+        m_occupancySignal = telemetry.integerSignal("/Logger/Occupancy", Tier.DIAGNOSTIC);
+        m_maxOccupancySignal = telemetry.integerSignal("/Logger/MaxOccupancy", Tier.DIAGNOSTIC);
+        m_loopChannel = integerChannel(kLoopChannel);
+
+        m_writer = new Thread(this::writeLoop, "MatchLogger");
+        m_writer.setDaemon(true);
+        m_writer.start();
+    }
+
+    /**
+     * Wait for the writer instead of dropping loops when the ring is full. Only for replay and
+     * headless simulation, where nothing runs in real time.
+     */
+    public void setLossless(boolean lossless) {
+        m_lossless = lossless;
+    }
+
+    /** Wait until every committed loop is written, and flush the log to disk. */
+    public void flush() {
+        if (!m_started) return;
+        while (m_readIndex < m_writeIndex) {
+            LockSupport.unpark(m_writer);
+            Thread.onSpinWait();
+        }
+        m_log.flush();
+    }
+
+    /** Copy this loop's values into the ring, call once at the end of robotPeriodic(). */
+    public void commit() {
+        if (!m_started) return;
+
+        long write = m_writeIndex;
+        long occupancy = write - m_readIndex;
+        while (m_lossless && occupancy >= kSlots) {
+            LockSupport.unpark(m_writer);
+            Thread.onSpinWait();
+            occupancy = write - m_readIndex;
+        }
+        m_occupancySignal.set(occupancy);
+        if (occupancy >= kSlots) {
+            // The writer is behind, drop this loop rather than wait on it.
+            m_droppedSignal.set(++m_dropped);
+            return;
+        }
+        if (occupancy > m_maxOccupancy) {
+            m_maxOccupancy = occupancy;
+            m_maxOccupancySignal.set(m_maxOccupancy);
+        }
+
+        // Set before counting the loop, so this loop is its first.
+        m_loopChannel.set(m_loops + 1);
+        m_loops++;
+        int count = m_channelCount;
+        m_staging[0] = RobotController.getFPGATime();
+        m_staging[1] = count;
+        System.arraycopy(m_staging, 0, m_ring, (int) (write % kSlots) * kRecordSize, count + 2);
+        m_writeIndex = write + 1;
+    }
+
+    private void writeLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long write = m_writeIndex;
+            for (long read = m_readIndex; read < write; read++) {
+                int base = (int) (read % kSlots) * kRecordSize;
+                long timestamp = (long) m_ring[base];
+                int count = (int) m_ring[base + 1];
+                long loop = (long) m_ring[base + 2 + m_loopChannel.m_index];
+                for (int i = 0; i < count; i++) {
+                    // Not set as of this loop.
+                    long firstLoop = m_firstLoop[i];
+                    if (firstLoop == 0 || firstLoop > loop) continue;
+                    double value = m_ring[base + 2 + i];
+                    // Unchanged since we last wrote it, NaN included.
+                    if (m_written[i]
+                            && Double.doubleToLongBits(value)
+                                    == Double.doubleToLongBits(m_lastWritten[i])) {
+                        continue;
+                    }
+                    append(i, value, timestamp);
+                    m_lastWritten[i] = value;
+                    m_written[i] = true;
+                }
+                m_readIndex = read + 1;
+            }
+            LockSupport.parkNanos(kWriterPeriodNanos);
+        }
+    }
+
+    private void append(int index, double value, long timestamp) {
+        if (m_entries[index] == null) {
+            m_entries[index] =
+                    switch (m_kinds[index]) {
+                        case DOUBLE -> new DoubleLogEntry(m_log, m_names[index]);
+                        case BOOLEAN -> new BooleanLogEntry(m_log, m_names[index]);
+                        case INTEGER -> new IntegerLogEntry(m_log, m_names[index]);
+                    };
+        }
+        switch (m_kinds[index]) {
+            case DOUBLE -> ((DoubleLogEntry) m_entries[index]).append(value, timestamp);
+            case BOOLEAN -> ((BooleanLogEntry) m_entries[index]).append(value != 0, timestamp);
+            case INTEGER -> ((IntegerLogEntry) m_entries[index]).append((long) value, timestamp);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shares the battery between every SparkMax by priority, so the robot keeps as much current as it
+ * can without sagging the battery into a brownout.
+ *
+ * <p>The battery is modelled as its open circuit voltage behind a fixed resistance. From the
+ * measured voltage and the battery current of every registered controller, that gives the
+ * current the robot can draw before the battery falls to the minimum voltage. A controller's
+ * output current is its motor's, it draws that times its duty cycle from the battery. Every group
+ * gets its floor, then the rest is handed out highest priority first, up to each group's normal
+ * limit. The budget drops as soon as the voltage sags and recovers at a limited rate.
+ *
+ * <p>Brushed controllers get their secondary limit, as the smart limit needs a brushless motor.
+ * Setting a current limit waits on the controller, so new limits are sent from a background
+ * thread and only once they change by a whole step.
+ */
+public final class PowerManager {
+    /** Who keeps their current when there isn't enough for everyone, highest first. */
+    public enum Priority {
+        CRITICAL,
+        HIGH,
+        MEDIUM,
+        LOW;
+    }
+
+    private static PowerManager s_instance;
+
+    private static final class Group {
+        private final Priority m_priority;
+        private final int m_minAmps;
+        private final int m_maxAmps;
+        private final SparkMaxInputs[] m_motors;
+        private final DoubleSignal m_limitSignal;
+        private int m_limit;
+
+        private Group(
+                String name, Priority priority, int minAmps, int maxAmps, SparkMaxInputs[] motors) {
+            m_priority = priority;
+            m_minAmps = minAmps;
+            m_maxAmps = maxAmps;
+            m_motors = motors;
+            m_limitSignal =
+                    Telemetry.getInstance()
+                            .doubleSignal("/Power/" + name + "/Limit", Tier.DIAGNOSTIC);
+            m_limit = maxAmps;
+        }
+    }
+
+    private final List<Group> m_groups = new ArrayList<>();
+    private final ExecutorService m_executor =
+            Executors.newSingleThreadExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "PowerManager");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    private double m_batteryResistance;
+    private double m_minVoltage;
+    private double m_recoveryRate;
+    private int m_periodCycles;
+    private int m_limitStep;
+    private boolean m_started = false;
+
+    private double m_budget = Double.POSITIVE_INFINITY;
+    private int m_cycle = 0;
+
+    private final DoubleSignal m_voltageSignal =
+            Telemetry.getInstance().doubleSignal("/Power/Voltage", Tier.CRITICAL);
+    private final DoubleSignal m_currentSignal =
+            Telemetry.getInstance().doubleSignal("/Power/Current", Tier.CRITICAL);
+    private final DoubleSignal m_budgetSignal =
+            Telemetry.getInstance().doubleSignal("/Power/Budget", Tier.DIAGNOSTIC);
+
+    private PowerManager() {}
+
+    public static synchronized PowerManager getInstance() {
+        if (s_instance == null) {
+            s_instance = new PowerManager();
+        }
+        return s_instance;
+    }
+
+    /**
+     * Register a group of controllers sharing a limit, each is configured with maxAmps to begin
+     * with. Their current is summed every update, so keep each one's status 1 frame fast, followers
+     * included.
+     *
+     * @param name Name to report the limit under, i.e. "Shooter".
+     * @param minAmps The least each controller is ever limited to.
+     * @param maxAmps Each controller's limit when the battery has current to spare.
+     */
+    public synchronized void register(
+            String name, Priority priority, int minAmps, int maxAmps, SparkMaxInputs... motors) {
+        Group group = new Group(name, priority, minAmps, maxAmps, motors);
+        int index = 0;
+        while (index < m_groups.size() && m_groups.get(index).m_priority.compareTo(priority) <= 0) {
+            index++;
+        }
+        m_groups.add(index, group);
+    }
+
+    /**
+     * Start managing current limits. Call once every controller has been configured, so the
+     * configurator's limits aren't raced.
+     *
+     * @param batteryResistance Ohms of the battery and wiring.
+     * @param minVoltage The lowest the battery should be allowed to sag to.
+     * @param recoveryRate Amps per second the budget may rise by.
+     * @param periodCycles Loops between updates.
+     * @param limitStep Amps limits are rounded down to, and must change by to be sent.
+     */
+    public synchronized void start(
+            double batteryResistance,
+            double minVoltage,
+            double recoveryRate,
+            int periodCycles,
+            int limitStep) {
+        m_batteryResistance = batteryResistance;
+        m_minVoltage = minVoltage;
+        m_recoveryRate = recoveryRate;
+        m_periodCycles = periodCycles;
+        m_limitStep = limitStep;
+        m_started = true;
+    }
+
+    /** Call once per loop after the sensor snapshot, limits are only updated every few loops. */
+    public synchronized void update() {
+        if (!m_started || m_cycle++ % m_periodCycles != 0) return;
+
+        double voltage = RobotController.getBatteryVoltage();
+        double current = 0;
+        for (int i = 0; i < m_groups.size(); i++) {
+            for (SparkMaxInputs motor : m_groups.get(i).m_motors) {
+                // Holding the arm or pushing at low throttle is a lot of motor current, but
+                // little from the battery.
+                current += motor.getOutputCurrent() * Math.abs(motor.getAppliedOutput());
+            }
+        }
+
+        // What the battery could supply before sagging to the minimum, from its open circuit
+        // voltage with the present load removed.
+        double openCircuit = voltage + current * m_batteryResistance;
+        double available = Math.max((openCircuit - m_minVoltage) / m_batteryResistance, 0);
+        double recovered = m_budget + m_recoveryRate * m_periodCycles * TimedRobot.kDefaultPeriod;
+        m_budget = Math.min(available, recovered);
+
+        double remaining = m_budget;
+        for (int i = 0; i < m_groups.size(); i++) {
+            Group group = m_groups.get(i);
+            remaining -= group.m_minAmps * group.m_motors.length;
+        }
+        for (int i = 0; i < m_groups.size(); i++) {
+            Group group = m_groups.get(i);
+            double extra =
+                    MathUtil.clamp(
+                            remaining / group.m_motors.length,
+                            0,
+                            group.m_maxAmps - group.m_minAmps);
+            remaining -= extra * group.m_motors.length;
+            int limit = group.m_minAmps + (int) (extra / m_limitStep) * m_limitStep;
+            if (Math.abs(limit - group.m_limit) >= m_limitStep) {
+                group.m_limit = limit;
+                apply(group.m_motors, limit);
+            }
+            group.m_limitSignal.set(group.m_limit);
+        }
+
+        m_voltageSignal.set(voltage);
+        m_currentSignal.set(current);
+        m_budgetSignal.set(m_budget);
+    }
+
+    private void apply(SparkMaxInputs[] motors, int limit) {
+        m_executor.execute(
+                () -> {
+                    for (SparkMaxInputs motor : motors) {
+                        // Replayed controllers have nothing to limit.
+                        if (motor.getMotor() != null) {
+                            SparkMaxConfigurator.setCurrentLimit(motor.getMotor(), limit);
+                        }
+                    }
+                });
+    }
+}
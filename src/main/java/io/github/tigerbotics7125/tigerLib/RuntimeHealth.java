@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.TimedRobot;
+import io.github.tigerbotics7125.tigerLib.Telemetry.BooleanSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.RuntimeMXBean;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Watches the JVM the robot runs in: GC pauses, heap and metaspace use, and how much of the CPU
+ * and what priority the main thread gets. Published once a second, except a loop overrun which
+ * lines up with a GC pause is reported straight away, so overruns can be told apart from slow
+ * code.
+ *
+ * <p>The main thread's priority comes from the {@value #kPriorityProperty} system property, set by
+ * the deploy's JVM profile (see build.gradle). Without it the thread is left alone.
+ */
+public final class RuntimeHealth {
+    public static final String kPriorityProperty = "tigerbotics.mainThreadPriority";
+
+    private static final int kPublishPeriodCycles = 50;
+    private static final long kLoopMillis = (long) (TimedRobot.kDefaultPeriod * 1E3);
+    private static final double kMB = 1024 * 1024;
+
+    private static RuntimeHealth s_instance;
+
+    private final RuntimeMXBean m_runtime = ManagementFactory.getRuntimeMXBean();
+    private final Runtime m_heap = Runtime.getRuntime();
+    private final com.sun.management.ThreadMXBean m_threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private MemoryPoolMXBean m_metaspace = null;
+
+    // Written by the JMX notification thread after each collection.
+    private volatile long m_gcCount = 0;
+    private volatile long m_gcMillis = 0;
+    private volatile long m_lastPauseEnd = Long.MIN_VALUE / 2; // ms of JVM uptime.
+    private volatile long m_lastPause = 0;
+    private volatile long m_maxPause = 0;
+
+    private int m_lastOverruns = 0;
+    private int m_gcOverruns = 0;
+    private long m_lastCpuNanos = 0;
+    private long m_lastWallNanos = 0;
+    private int m_cycle = 0;
+
+    private final Telemetry m_telemetry = Telemetry.getInstance();
+    private final IntegerSignal m_gcCountSignal =
+            m_telemetry.integerSignal("/Runtime/GC/Count", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_gcTimeSignal =
+            m_telemetry.doubleSignal("/Runtime/GC/TotalMs", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_lastPauseSignal =
+            m_telemetry.doubleSignal("/Runtime/GC/LastPauseMs", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_maxPauseSignal =
+            m_telemetry.doubleSignal("/Runtime/GC/MaxPauseMs", Tier.DIAGNOSTIC);
+    private final IntegerSignal m_gcOverrunSignal =
+            m_telemetry.integerSignal("/Runtime/GC/Overruns", Tier.CRITICAL);
+    private final DoubleSignal m_heapUsedSignal =
+            m_telemetry.doubleSignal("/Runtime/HeapUsedMB", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_heapCommittedSignal =
+            m_telemetry.doubleSignal("/Runtime/HeapCommittedMB", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_metaspaceSignal =
+            m_telemetry.doubleSignal("/Runtime/MetaspaceMB", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_mainCpuSignal =
+            m_telemetry.doubleSignal("/Runtime/Main/CPUPercent", Tier.DIAGNOSTIC);
+    private final IntegerSignal m_mainPrioritySignal =
+            m_telemetry.integerSignal("/Runtime/Main/Priority", Tier.STATIC);
+    private final BooleanSignal m_mainRealTimeSignal =
+            m_telemetry.booleanSignal("/Runtime/Main/RealTime", Tier.STATIC);
+    private final IntegerSignal m_threadCountSignal =
+            m_telemetry.integerSignal("/Runtime/Threads", Tier.STATIC);
+
+    private RuntimeHealth() {}
+
+    public static synchronized RuntimeHealth getInstance() {
+        if (s_instance == null) {
+            s_instance = new RuntimeHealth();
+        }
+        return s_instance;
+    }
+
+    /** Start listening for collections and set the priority, call from the main thread. */
+    public void start() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(this::collected, null, null);
+            }
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.NON_HEAP && pool.getName().equals("Metaspace")) {
+                m_metaspace = pool;
+            }
+        }
+
+        Integer priority = Integer.getInteger(kPriorityProperty);
+        if (priority != null && !Threads.setCurrentThreadPriority(true, priority)) {
+            DriverStation.reportWarning("Couldn't set the main thread's priority", false);
+        }
+        m_lastCpuNanos = m_threads.getCurrentThreadCpuTime();
+        m_lastWallNanos = System.nanoTime();
+    }
+
+    private void collected(Notification notification, Object handback) {
+        if (!notification
+                .getType()
+                .equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+        GcInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+                        .getGcInfo();
+        m_gcCount++;
+        m_gcMillis += info.getDuration();
+        m_lastPause = info.getDuration();
+        m_maxPause = Math.max(m_maxPause, info.getDuration());
+        m_lastPauseEnd = info.getEndTime();
+    }
+
+    /** Call at the end of robotPeriodic(), after the loop profiler. */
+    public void update() {
+        int overruns = LoopProfiler.getInstance().getOverruns();
+        if (overruns != m_lastOverruns) {
+            m_lastOverruns = overruns;
+            // A pause in this loop or the one before it could have made it late.
+            long sincePause = m_runtime.getUptime() - m_lastPauseEnd;
+            if (sincePause <= 2 * kLoopMillis) {
+                m_gcOverrunSignal.set(++m_gcOverruns);
+                DriverStation.reportWarning(
+                        String.format(
+                                "Loop overrun lined up with a %d ms GC pause", m_lastPause),
+                        false);
+            }
+        }
+
+        if (m_cycle++ % kPublishPeriodCycles != 0) return;
+
+        m_gcCountSignal.set(m_gcCount);
+        m_gcTimeSignal.set(m_gcMillis);
+        m_lastPauseSignal.set(m_lastPause);
+        m_maxPauseSignal.set(m_maxPause);
+
+        // MemoryMXBean and MemoryPoolMXBean return a new MemoryUsage each call, Runtime doesn't.
+        long committed = m_heap.totalMemory();
+        m_heapUsedSignal.set((committed - m_heap.freeMemory()) / kMB);
+        m_heapCommittedSignal.set(committed / kMB);
+        // Metaspace only grows as classes load, so is left to the disabled loop.
+        if (m_metaspace != null && DriverStation.isDisabled()) {
+            m_metaspaceSignal.set(m_metaspace.getUsage().getUsed() / kMB);
+        }
+
+        long cpuNanos = m_threads.getCurrentThreadCpuTime();
+        long wallNanos = System.nanoTime();
+        m_mainCpuSignal.set(100.0 * (cpuNanos - m_lastCpuNanos) / (wallNanos - m_lastWallNanos));
+        m_lastCpuNanos = cpuNanos;
+        m_lastWallNanos = wallNanos;
+        m_mainPrioritySignal.set(Threads.getCurrentThreadPriority());
+        m_mainRealTimeSignal.set(Threads.getCurrentThreadIsRealTime());
+        m_threadCountSignal.set(m_threads.getThreadCount());
+    }
+}
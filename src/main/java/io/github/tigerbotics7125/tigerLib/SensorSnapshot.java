@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import edu.wpi.first.hal.CANStatus;
+import edu.wpi.first.hal.DriverStationJNI;
+import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.wpilibj.Timer;
+import io.github.tigerbotics7125.tigerLib.Telemetry.DoubleSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads every registered sensor once at the top of each loop, so all subsystems see the same,
+ * timestamped values and no signal is fetched twice.
+ *
+ * <p>The driver station's data is refreshed by the robot loop, not here, but a thread notes when
+ * each packet arrives so the loop knows how old the driver's inputs are.
+ */
+public final class SensorSnapshot {
+    private static final int kCANStatusPeriodCycles = 50;
+
+    private static SensorSnapshot s_instance;
+
+    private final List<SparkMaxInputs> m_sparkMaxes = new ArrayList<>();
+    private final LoopProfiler.Probe m_probe = LoopProfiler.getInstance().probe("SensorSnapshot");
+
+    private final DoubleSignal m_readTimeSignal =
+            Telemetry.getInstance().doubleSignal("/CAN/SnapshotReadMs", Tier.DIAGNOSTIC);
+    private final DoubleSignal m_utilizationSignal =
+            Telemetry.getInstance().doubleSignal("/CAN/Utilization", Tier.STATIC);
+
+    private final CANStatus m_canStatus = new CANStatus();
+    private int m_cycle = 0;
+
+    private volatile double m_driverStationArrival = Double.NaN;
+    private double m_driverStationTimestamp = Double.NaN;
+
+    private SensorSnapshot() {
+        Thread thread = new Thread(this::watchDriverStation, "DriverStationData");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static synchronized SensorSnapshot getInstance() {
+        if (s_instance == null) {
+            s_instance = new SensorSnapshot();
+        }
+        return s_instance;
+    }
+
+    /**
+     * Register a SparkMax without an encoder, such as a brushed motor.
+     *
+     * @param name Name to log the readings under, i.e. "Arm/Left".
+     */
+    public SparkMaxInputs sparkMax(String name, CANSparkMax motor) {
+        return add(new SparkMaxInputs(name, motor, null));
+    }
+
+    /** Register a SparkMax and its built in encoder. */
+    public SparkMaxInputs sparkMaxWithEncoder(String name, CANSparkMax motor) {
+        return sparkMaxWithEncoder(name, motor, motor.getEncoder());
+    }
+
+    /** Register a SparkMax and another encoder it reads, such as a quadrature one. */
+    public SparkMaxInputs sparkMaxWithEncoder(
+            String name, CANSparkMax motor, RelativeEncoder encoder) {
+        return add(new SparkMaxInputs(name, motor, encoder));
+    }
+
+    /**
+     * Register a SparkMax whose readings are replayed from the {@link LogReplay}, under the same
+     * name it was recorded with.
+     */
+    public SparkMaxInputs replayed(String name, boolean hasEncoder) {
+        return add(new SparkMaxInputs(name, hasEncoder, LogReplay.getInstance()));
+    }
+
+    private synchronized SparkMaxInputs add(SparkMaxInputs inputs) {
+        m_sparkMaxes.add(inputs);
+        return inputs;
+    }
+
+    /**
+     * @return FPGA time in seconds the driver station packet this loop's HID inputs came from
+     *     arrived, NaN before the first one.
+     */
+    public double getDriverStationTimestamp() {
+        return m_driverStationTimestamp;
+    }
+
+    /** Read every sensor, call at the top of robotPeriodic() before the scheduler runs. */
+    public synchronized void refresh() {
+        m_probe.start();
+        // DriverStation.refreshData() ran just before robotPeriodic(), only the mode's empty
+        // periodic() sits between, so the latest packet is the one it copied.
+        m_driverStationTimestamp = m_driverStationArrival;
+        double timestamp = Timer.getFPGATimestamp();
+        long start = System.nanoTime();
+        for (int i = 0; i < m_sparkMaxes.size(); i++) {
+            m_sparkMaxes.get(i).update(timestamp);
+        }
+        m_readTimeSignal.set((System.nanoTime() - start) / 1E6);
+
+        if (m_cycle++ % kCANStatusPeriodCycles == 0) {
+            // RobotController.getCANStatus() allocates a new status each call, reuse one.
+            CANJNI.getCANStatus(m_canStatus);
+            m_utilizationSignal.set(m_canStatus.percentBusUtilization);
+        }
+        m_probe.stop();
+    }
+
+    /** Runs on its own thread, woken by the HAL as each packet arrives. */
+    private void watchDriverStation() {
+        int event = WPIUtilJNI.createEvent(false, false);
+        DriverStationJNI.provideNewDataEventHandle(event);
+        try {
+            while (true) {
+                WPIUtilJNI.waitForObject(event);
+                m_driverStationArrival = Timer.getFPGATimestamp();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            DriverStationJNI.removeNewDataEventHandle(event);
+            WPIUtilJNI.destroyEvent(event);
+        }
+    }
+}
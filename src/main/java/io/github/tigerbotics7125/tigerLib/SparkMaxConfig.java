@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkMax;
+
+/**
+ * Declarative description of the settings a {@link CANSparkMax} should hold. Handed to {@link
+ * SparkMaxConfigurator}, which compares it against what is already on the controller.
+ */
+public class SparkMaxConfig {
+    /** The longest period a status frame can be set to. */
+    public static final int kUnusedFramePeriod = 65535;
+
+    int m_currentLimit = 80;
+    IdleMode m_idleMode = IdleMode.kCoast;
+    boolean m_inverted = false;
+    // Zero leaves voltage compensation off.
+    double m_nominalVoltage = 0;
+
+    CANSparkMax m_leader = null;
+    boolean m_followInverted = false;
+
+    // The encoder is only touched if a conversion factor is given.
+    boolean m_usesEncoder = false;
+    // Brushed motors have no hall sensor, a positive count means a quadrature encoder instead.
+    int m_countsPerRev = 0;
+    boolean m_encoderInverted = false;
+    double m_positionConversionFactor = 1;
+    double m_velocityConversionFactor = 1;
+    Double m_initialPosition = null;
+
+    // Onboard closed loop gains, slot 0.
+    boolean m_usesPID = false;
+    double m_kP = 0;
+    double m_kI = 0;
+    double m_kD = 0;
+    double m_kFF = 0;
+
+    // Indexed by PeriodicFrame ordinal, a negative period leaves the frame at its default.
+    int[] m_framePeriods = {-1, -1, -1, -1, -1, -1, -1};
+
+    public SparkMaxConfig currentLimit(int amps) {
+        m_currentLimit = amps;
+        return this;
+    }
+
+    public SparkMaxConfig idleMode(IdleMode idleMode) {
+        m_idleMode = idleMode;
+        return this;
+    }
+
+    public SparkMaxConfig inverted(boolean inverted) {
+        m_inverted = inverted;
+        return this;
+    }
+
+    /**
+     * Scale output by the bus voltage, so a duty cycle is a fraction of the nominal voltage however
+     * far the battery has sagged. Don't combine with {@code setVoltage()}, which already scales by
+     * the measured battery voltage.
+     */
+    public SparkMaxConfig voltageCompensation(double nominalVoltage) {
+        m_nominalVoltage = nominalVoltage;
+        return this;
+    }
+
+    public SparkMaxConfig follow(CANSparkMax leader) {
+        return follow(leader, false);
+    }
+
+    public SparkMaxConfig follow(CANSparkMax leader, boolean inverted) {
+        m_leader = leader;
+        m_followInverted = inverted;
+        return this;
+    }
+
+    public SparkMaxConfig conversionFactors(double position, double velocity) {
+        m_usesEncoder = true;
+        m_positionConversionFactor = position;
+        m_velocityConversionFactor = velocity;
+        return this;
+    }
+
+    /**
+     * Use a quadrature encoder on the data port, as a brushed motor has no built in one. Get it in
+     * code with {@code getEncoder(SparkRelativeEncoder.Type.kQuadrature, countsPerRev)}.
+     */
+    public SparkMaxConfig quadratureEncoder(int countsPerRev, boolean inverted) {
+        m_countsPerRev = countsPerRev;
+        m_encoderInverted = inverted;
+        return this;
+    }
+
+    /** Gains for the onboard closed loop, in duty cycle per unit of the encoder's conversion. */
+    public SparkMaxConfig pid(double kP, double kI, double kD, double kFF) {
+        m_usesPID = true;
+        m_kP = kP;
+        m_kI = kI;
+        m_kD = kD;
+        m_kFF = kFF;
+        return this;
+    }
+
+    /** Encoder position to set once configured, this is not stored in flash. */
+    public SparkMaxConfig initialPosition(double position) {
+        m_initialPosition = position;
+        return this;
+    }
+
+    /**
+     * Set the status frame periods, in ms. Frames 3 through 6 (analog sensor, alternate encoder and
+     * duty cycle encoder) are unused on this robot and get slowed to {@link #kUnusedFramePeriod}.
+     *
+     * @param status0 Applied output and faults. Followers read their leader's, keep it fast there.
+     * @param status1 Velocity, current, temperature and bus voltage.
+     * @param status2 Position.
+     */
+    public SparkMaxConfig statusFrames(int status0, int status1, int status2) {
+        int unused = kUnusedFramePeriod;
+        m_framePeriods = new int[] {status0, status1, status2, unused, unused, unused, unused};
+        return this;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkRelativeEncoder;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Configures every SparkMax on the robot off the main thread.
+ *
+ * <p>Each controller's persisted settings are read back and compared to its {@link
+ * SparkMaxConfig}. Only when something differs is the controller factory reset and its flash
+ * burned, otherwise the volatile settings are applied and the flash is left alone. Independent
+ * controllers are configured concurrently.
+ */
+public final class SparkMaxConfigurator {
+    private static final int kThreads = 4;
+    private static final double kEpsilon = 1E-6;
+    private static final PeriodicFrame[] kFrames = {
+        PeriodicFrame.kStatus0,
+        PeriodicFrame.kStatus1,
+        PeriodicFrame.kStatus2,
+        PeriodicFrame.kStatus3,
+        PeriodicFrame.kStatus4,
+        PeriodicFrame.kStatus5,
+        PeriodicFrame.kStatus6
+    };
+
+    private static SparkMaxConfigurator s_instance;
+
+    private record Result(String name, boolean flashed, double millis) {}
+
+    private final ExecutorService m_executor =
+            Executors.newFixedThreadPool(
+                    kThreads,
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "SparkMaxConfigurator");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+    private final List<Future<Result>> m_pending = new ArrayList<>();
+    private long m_startNanos = 0;
+
+    private SparkMaxConfigurator() {}
+
+    public static synchronized SparkMaxConfigurator getInstance() {
+        if (s_instance == null) {
+            s_instance = new SparkMaxConfigurator();
+        }
+        return s_instance;
+    }
+
+    /**
+     * Queue a controller to be configured, returns immediately.
+     *
+     * @param name Name to report the configuration time under, i.e. "Arm/Left".
+     */
+    public synchronized void configure(String name, CANSparkMax motor, SparkMaxConfig config) {
+        if (m_pending.isEmpty()) {
+            m_startNanos = System.nanoTime();
+        }
+        m_pending.add(m_executor.submit(() -> apply(name, motor, config)));
+    }
+
+    /** Block until every queued controller is configured, then report how long it took. */
+    public synchronized void awaitAll() {
+        Telemetry telemetry = Telemetry.getInstance();
+        int flashed = 0;
+        for (Future<Result> future : m_pending) {
+            try {
+                Result result = future.get();
+                String prefix = "/MotorConfig/" + result.name();
+                telemetry.doubleSignal(prefix + "/ms", Tier.STATIC).set(result.millis());
+                telemetry.booleanSignal(prefix + "/Flashed", Tier.STATIC).set(result.flashed());
+                if (result.flashed()) flashed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                DriverStation.reportError(
+                        "SparkMax configuration failed: " + e.getCause(),
+                        e.getCause().getStackTrace());
+            }
+        }
+        double totalMillis = (System.nanoTime() - m_startNanos) / 1E6;
+        telemetry.doubleSignal("/MotorConfig/TotalMs", Tier.STATIC).set(totalMillis);
+        telemetry.integerSignal("/MotorConfig/FlashedCount", Tier.STATIC).set(flashed);
+        m_pending.clear();
+    }
+
+    private static Result apply(String name, CANSparkMax motor, SparkMaxConfig config) {
+        long start = System.nanoTime();
+
+        boolean flash = !persistedMatches(motor, config);
+        if (flash) {
+            motor.restoreFactoryDefaults();
+            Timer.delay(.02);
+        }
+
+        setCurrentLimit(motor, config.m_currentLimit);
+        motor.setIdleMode(config.m_idleMode);
+        motor.setInverted(config.m_inverted);
+        if (config.m_nominalVoltage > 0) {
+            motor.enableVoltageCompensation(config.m_nominalVoltage);
+        } else {
+            motor.disableVoltageCompensation();
+        }
+        if (config.m_leader != null) {
+            motor.follow(config.m_leader, config.m_followInverted);
+        }
+        if (config.m_usesEncoder) {
+            RelativeEncoder encoder = encoder(motor, config);
+            if (config.m_countsPerRev > 0) {
+                encoder.setInverted(config.m_encoderInverted);
+            }
+            encoder.setPositionConversionFactor(config.m_positionConversionFactor);
+            encoder.setVelocityConversionFactor(config.m_velocityConversionFactor);
+            if (config.m_initialPosition != null) {
+                encoder.setPosition(config.m_initialPosition);
+            }
+        }
+
+        if (config.m_usesPID) {
+            SparkPIDController pid = motor.getPIDController();
+            pid.setP(config.m_kP);
+            pid.setI(config.m_kI);
+            pid.setD(config.m_kD);
+            pid.setFF(config.m_kFF);
+        }
+
+        // Frame periods aren't stored in flash, so they always need setting.
+        for (int i = 0; i < kFrames.length; i++) {
+            if (config.m_framePeriods[i] >= 0) {
+                motor.setPeriodicFramePeriod(kFrames[i], config.m_framePeriods[i]);
+            }
+        }
+
+        if (flash) {
+            motor.burnFlash();
+            Timer.delay(.02);
+        }
+
+        return new Result(name, flash, (System.nanoTime() - start) / 1E6);
+    }
+
+    /**
+     * Smart current limiting needs the hall sensor, so does nothing for a brushed motor. Those get
+     * the secondary limit instead, which cuts the output for a cycle whenever it's exceeded.
+     */
+    static void setCurrentLimit(CANSparkMax motor, int amps) {
+        if (motor.getMotorType() == MotorType.kBrushed) {
+            motor.setSecondaryCurrentLimit(amps);
+        } else {
+            motor.setSmartCurrentLimit(amps);
+        }
+    }
+
+    /**
+     * Compare the settings which can be read back from the controller. The current limit cannot be
+     * read, but it is always applied to RAM so a stale value never survives a boot.
+     */
+    private static boolean persistedMatches(CANSparkMax motor, SparkMaxConfig config) {
+        if (motor.getIdleMode() != config.m_idleMode) return false;
+        if (config.m_leader == null && motor.getInverted() != config.m_inverted) return false;
+        if (Math.abs(motor.getVoltageCompensationNominalVoltage() - config.m_nominalVoltage)
+                > kEpsilon) return false;
+        if (config.m_usesEncoder) {
+            RelativeEncoder encoder = encoder(motor, config);
+            if (config.m_countsPerRev > 0 && encoder.getInverted() != config.m_encoderInverted)
+                return false;
+            if (Math.abs(encoder.getPositionConversionFactor() - config.m_positionConversionFactor)
+                    > kEpsilon) return false;
+            if (Math.abs(encoder.getVelocityConversionFactor() - config.m_velocityConversionFactor)
+                    > kEpsilon) return false;
+        }
+        if (config.m_usesPID) {
+            SparkPIDController pid = motor.getPIDController();
+            if (Math.abs(pid.getP() - config.m_kP) > kEpsilon) return false;
+            if (Math.abs(pid.getI() - config.m_kI) > kEpsilon) return false;
+            if (Math.abs(pid.getD() - config.m_kD) > kEpsilon) return false;
+            if (Math.abs(pid.getFF() - config.m_kFF) > kEpsilon) return false;
+        }
+        return true;
+    }
+
+    private static RelativeEncoder encoder(CANSparkMax motor, SparkMaxConfig config) {
+        if (config.m_countsPerRev > 0) {
+            return motor.getEncoder(SparkRelativeEncoder.Type.kQuadrature, config.m_countsPerRev);
+        }
+        return motor.getEncoder();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+
+/**
+ * The signals of a single SparkMax, read once per loop by {@link SensorSnapshot}. Everything which
+ * needs a reading should use this rather than asking the controller again. Every reading is
+ * recorded by the {@link MatchLogger} under "/Inputs/" followed by the controller's name, and
+ * when replaying a log they are read back from the same names instead of the controller.
+ */
+public class SparkMaxInputs {
+    private final CANSparkMax m_motor;
+    private final RelativeEncoder m_encoder;
+
+    private double m_timestamp = 0;
+    private double m_appliedOutput = 0;
+    private double m_outputCurrent = 0;
+    private double m_busVoltage = 0;
+    private double m_temperature = 0;
+    private double m_position = 0;
+    private double m_velocity = 0;
+
+    private final Channel m_appliedOutputChannel;
+    private final Channel m_outputCurrentChannel;
+    private final Channel m_busVoltageChannel;
+    private final Channel m_temperatureChannel;
+    private final Channel m_positionChannel;
+    private final Channel m_velocityChannel;
+
+    // Only when replaying, in the same order as the fields above.
+    private final LogReplay.Channel[] m_replayed;
+
+    /** @param encoder The encoder to read, or null if the controller has none. */
+    SparkMaxInputs(String name, CANSparkMax motor, RelativeEncoder encoder) {
+        this(name, motor, encoder, encoder != null, null);
+    }
+
+    /** Read back from a log rather than a controller. */
+    SparkMaxInputs(String name, boolean hasEncoder, LogReplay replay) {
+        this(name, null, null, hasEncoder, replay);
+    }
+
+    private SparkMaxInputs(
+            String name,
+            CANSparkMax motor,
+            RelativeEncoder encoder,
+            boolean hasEncoder,
+            LogReplay replay) {
+        m_motor = motor;
+        m_encoder = encoder;
+
+        MatchLogger logger = MatchLogger.getInstance();
+        String prefix = "/Inputs/" + name;
+        m_appliedOutputChannel = logger.doubleChannel(prefix + "/AppliedOutput");
+        m_outputCurrentChannel = logger.doubleChannel(prefix + "/OutputCurrent");
+        m_busVoltageChannel = logger.doubleChannel(prefix + "/BusVoltage");
+        m_temperatureChannel = logger.doubleChannel(prefix + "/Temperature");
+        if (hasEncoder) {
+            m_positionChannel = logger.doubleChannel(prefix + "/Position");
+            m_velocityChannel = logger.doubleChannel(prefix + "/Velocity");
+        } else {
+            m_positionChannel = null;
+            m_velocityChannel = null;
+        }
+
+        if (replay != null) {
+            m_replayed =
+                    new LogReplay.Channel[] {
+                        replay.channel(prefix + "/AppliedOutput"),
+                        replay.channel(prefix + "/OutputCurrent"),
+                        replay.channel(prefix + "/BusVoltage"),
+                        replay.channel(prefix + "/Temperature"),
+                        hasEncoder ? replay.channel(prefix + "/Position") : null,
+                        hasEncoder ? replay.channel(prefix + "/Velocity") : null
+                    };
+        } else {
+            m_replayed = null;
+        }
+    }
+
+    void update(double timestamp) {
+        m_timestamp = timestamp;
+        if (m_replayed != null) {
+            replay();
+        } else {
+            m_appliedOutput = m_motor.getAppliedOutput();
+            m_outputCurrent = m_motor.getOutputCurrent();
+            m_busVoltage = m_motor.getBusVoltage();
+            m_temperature = m_motor.getMotorTemperature();
+            if (m_encoder != null) {
+                m_position = m_encoder.getPosition();
+                m_velocity = m_encoder.getVelocity();
+            }
+        }
+        m_appliedOutputChannel.set(m_appliedOutput);
+        m_outputCurrentChannel.set(m_outputCurrent);
+        m_busVoltageChannel.set(m_busVoltage);
+        m_temperatureChannel.set(m_temperature);
+        if (m_positionChannel != null) {
+            m_positionChannel.set(m_position);
+            m_velocityChannel.set(m_velocity);
+        }
+    }
+
+    private void replay() {
+        m_appliedOutput = m_replayed[0].get();
+        m_outputCurrent = m_replayed[1].get();
+        m_busVoltage = m_replayed[2].get();
+        m_temperature = m_replayed[3].get();
+        if (m_replayed[4] != null) {
+            m_position = m_replayed[4].get();
+            m_velocity = m_replayed[5].get();
+        }
+    }
+
+    /** @return The controller, null when replaying. */
+    CANSparkMax getMotor() {
+        return m_motor;
+    }
+
+    /** @return FPGA time in seconds this snapshot was taken. */
+    public double getTimestamp() {
+        return m_timestamp;
+    }
+
+    /** @return Duty cycle [-1, 1]. */
+    public double getAppliedOutput() {
+        return m_appliedOutput;
+    }
+
+    /** @return Amps. */
+    public double getOutputCurrent() {
+        return m_outputCurrent;
+    }
+
+    /** @return Volts. */
+    public double getBusVoltage() {
+        return m_busVoltage;
+    }
+
+    /** @return Celsius. */
+    public double getTemperature() {
+        return m_temperature;
+    }
+
+    /** @return Encoder position, in the units of its conversion factor. */
+    public double getPosition() {
+        return m_position;
+    }
+
+    /** @return Encoder velocity, in the units of its conversion factor. */
+    public double getVelocity() {
+        return m_velocity;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
+import edu.wpi.first.wpilibj.Timer;
+import io.github.tigerbotics7125.tigerLib.Telemetry.IntegerSignal;
+import io.github.tigerbotics7125.tigerLib.Telemetry.Tier;
+
+/**
+ * Every output to a SparkMax goes through here, so a setpoint which hasn't changed isn't sent
+ * again each loop. The controller holds its last setpoint, so an unchanged one is only resent
+ * every keep alive period, in case the controller rebooted and lost it. A new control type, or a
+ * value or feedforward which moved by more than the tolerance, is always sent straight away.
+ *
+ * <p>Frames sent and skipped are counted under "/CAN/Output/" followed by the controller's name.
+ * Safe to call from more than one thread, such as a Notifier which stops the motor. The counts are
+ * published by the main loop's {@link Telemetry#update()}.
+ */
+public class SparkMaxOutput {
+    private final SparkPIDController m_pid;
+    private final double m_keepAlivePeriod;
+    private final double m_tolerance;
+
+    private ControlType m_type = null;
+    private double m_value = 0;
+    private double m_arbFF = 0;
+    private double m_lastSent = Double.NEGATIVE_INFINITY;
+
+    private long m_sent = 0;
+    private long m_skipped = 0;
+    private long m_publishedSent = 0;
+    private long m_publishedSkipped = 0;
+    private final IntegerSignal m_sentSignal;
+    private final IntegerSignal m_skippedSignal;
+    private final EnableLatency m_enableLatency = EnableLatency.getInstance();
+
+    /**
+     * @param name Name to count frames under, i.e. "Arm/Left".
+     * @param keepAlivePeriod Seconds an unchanged setpoint goes without being resent.
+     * @param tolerance Change in value or feedforward which is worth sending.
+     */
+    public SparkMaxOutput(
+            String name, CANSparkMax motor, double keepAlivePeriod, double tolerance) {
+        m_pid = motor.getPIDController();
+        m_keepAlivePeriod = keepAlivePeriod;
+        m_tolerance = tolerance;
+
+        String prefix = "/CAN/Output/" + name;
+        m_sentSignal = Telemetry.getInstance().integerSignal(prefix + "/Sent", Tier.STATIC);
+        m_skippedSignal = Telemetry.getInstance().integerSignal(prefix + "/Skipped", Tier.STATIC);
+        Telemetry.getInstance().addSampler(this::publish);
+    }
+
+    /** @param output Duty cycle [-1, 1], or a fraction of the nominal voltage if compensated. */
+    public void set(double output) {
+        setReference(output, ControlType.kDutyCycle, 0);
+    }
+
+    /** Volts, applied by the controller whatever the battery is at. */
+    public void setVoltage(double volts) {
+        setReference(volts, ControlType.kVoltage, 0);
+    }
+
+    public void stop() {
+        set(0);
+    }
+
+    /** @param arbFFVolts Feedforward added by the controller, volts. */
+    public synchronized void setReference(double value, ControlType type, double arbFFVolts) {
+        double now = Timer.getFPGATimestamp();
+        if (type == m_type
+                && Math.abs(value - m_value) <= m_tolerance
+                && Math.abs(arbFFVolts - m_arbFF) <= m_tolerance
+                && now - m_lastSent < m_keepAlivePeriod) {
+            m_skipped++;
+            return;
+        }
+        m_pid.setReference(value, type, 0, arbFFVolts, ArbFFUnits.kVoltage);
+        m_type = type;
+        m_value = value;
+        m_arbFF = arbFFVolts;
+        m_lastSent = now;
+        m_sent++;
+        m_enableLatency.output();
+    }
+
+    private synchronized void publish() {
+        if (m_sent != m_publishedSent) m_sentSignal.set(m_publishedSent = m_sent);
+        if (m_skipped != m_publishedSkipped) m_skippedSignal.set(m_publishedSkipped = m_skipped);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import com.revrobotics.CANSparkMax;
+import edu.wpi.first.hal.SimDouble;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import edu.wpi.first.wpilibj.simulation.SimDeviceSim;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds a physics model's state into a SparkMax's simulated device, so code reads it back through
+ * the normal encoder and current getters. Only duty cycle and voltage output is simulated by
+ * REVLib, so mechanisms should close their loops on the roboRIO in simulation.
+ */
+public class SparkMaxSim {
+    private static final List<SparkMaxSim> s_all = new ArrayList<>();
+
+    private final CANSparkMax m_motor;
+    private final SimDouble m_position;
+    private final SimDouble m_velocity;
+    private final SimDouble m_current;
+    private final SimDouble m_busVoltage;
+    private final double m_nominalVoltage;
+    private double m_currentAmps = 0;
+
+    public SparkMaxSim(CANSparkMax motor) {
+        this(motor, 0);
+    }
+
+    /** @param nominalVoltage The controller's voltage compensation, REVLib doesn't simulate it. */
+    public SparkMaxSim(CANSparkMax motor, double nominalVoltage) {
+        m_motor = motor;
+        m_nominalVoltage = nominalVoltage;
+        SimDeviceSim device = new SimDeviceSim("SPARK MAX [" + motor.getDeviceId() + "]");
+        m_position = device.getDouble("Position");
+        m_velocity = device.getDouble("Velocity");
+        m_current = device.getDouble("Motor Current");
+        m_busVoltage = device.getDouble("Bus Voltage");
+        synchronized (s_all) {
+            s_all.add(this);
+        }
+    }
+
+    /** @return Volts the controller is applying to the motor, the input to a physics model. */
+    public double getMotorVoltage() {
+        double battery = RobotController.getBatteryVoltage();
+        double output = m_motor.getAppliedOutput();
+        if (m_nominalVoltage <= 0) return output * battery;
+        // Compensated, but it can't apply more than the battery has.
+        return MathUtil.clamp(output * m_nominalVoltage, -battery, battery);
+    }
+
+    /**
+     * @param position In the units of the encoder's conversion factor.
+     * @param velocity In the units of the encoder's conversion factor.
+     * @param current Amps drawn by this motor.
+     */
+    public void setState(double position, double velocity, double current) {
+        m_currentAmps = Math.abs(current);
+        set(m_position, position);
+        set(m_velocity, velocity);
+        set(m_current, m_currentAmps);
+        set(m_busVoltage, RobotController.getBatteryVoltage());
+    }
+
+    private static void set(SimDouble field, double value) {
+        // Fields are only present once the controller has been opened by REVLib.
+        if (field != null) field.set(value);
+    }
+
+    /** Sag the simulated battery by what every simulated motor draws, call once per loop. */
+    public static void updateBattery() {
+        double total = 0;
+        synchronized (s_all) {
+            for (int i = 0; i < s_all.size(); i++) {
+                total += s_all.get(i).m_currentAmps;
+            }
+        }
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(total));
+    }
+}
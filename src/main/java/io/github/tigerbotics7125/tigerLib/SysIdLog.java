@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog.State;
+
+/**
+ * Records a SysId routine to the wpilog, for the SysId tool to fit. Entries are made once and each
+ * sample is a primitive append, where SysIdRoutineLog looks its entries up by name and boxes every
+ * sample in a Measure. Every loop is recorded, not only changes like the {@link MatchLogger}, as a
+ * dynamic test holds its voltage.
+ *
+ * <p>The test state goes under "sysid-test-state-" followed by the mechanism, as the SysId tool
+ * expects. Samples are under "/SysId/Mechanism/Motor/", in the units of the motor's encoder.
+ */
+public final class SysIdLog {
+    private final String m_mechanism;
+    private final String[] m_motors;
+
+    private StringLogEntry m_state = null;
+    private DoubleLogEntry[] m_voltage;
+    private DoubleLogEntry[] m_position;
+    private DoubleLogEntry[] m_velocity;
+    private State m_lastState = null;
+
+    /** @param motors Name of each motor or side recorded, i.e. "Left" and "Right". */
+    public SysIdLog(String mechanism, String... motors) {
+        m_mechanism = mechanism;
+        m_motors = motors;
+    }
+
+    /** The log isn't open until robotInit(), so entries wait for the first test. */
+    private void open() {
+        if (m_state != null) return;
+        DataLog log = DataLogManager.getLog();
+        m_state = new StringLogEntry(log, "sysid-test-state-" + m_mechanism);
+        m_voltage = new DoubleLogEntry[m_motors.length];
+        m_position = new DoubleLogEntry[m_motors.length];
+        m_velocity = new DoubleLogEntry[m_motors.length];
+        for (int i = 0; i < m_motors.length; i++) {
+            String prefix = "/SysId/" + m_mechanism + "/" + m_motors[i] + "/";
+            m_voltage[i] = new DoubleLogEntry(log, prefix + "Voltage");
+            m_position[i] = new DoubleLogEntry(log, prefix + "Position");
+            m_velocity[i] = new DoubleLogEntry(log, prefix + "Velocity");
+        }
+    }
+
+    /** For SysIdRoutine.Config, which reports the state every loop. Only changes are logged. */
+    public void recordState(State state) {
+        if (state == m_lastState) return;
+        open();
+        m_state.append(state.toString());
+        m_lastState = state;
+    }
+
+    /**
+     * @param motor Index of the motor, in the order they were named.
+     * @param volts Applied, not commanded, volts.
+     */
+    public void record(int motor, double volts, double position, double velocity) {
+        open();
+        m_voltage[motor].append(volts);
+        m_position[motor].append(position);
+        m_velocity[motor].append(velocity);
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj.TimedRobot;
+import io.github.tigerbotics7125.tigerLib.MatchLogger.Channel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Telemetry published through pre-created, typed NetworkTables publishers.
+ *
+ * <p>Setting a signal only stores the value, nothing touches NetworkTables until {@link #update()}
+ * flushes the signals of each tier which is due that loop. Nothing allocates once a signal exists.
+ * Numeric signals are also recorded every loop by the {@link MatchLogger}, regardless of tier.
+ *
+ * <p>Signals aren't thread safe, only set them from the main loop. Code which runs on other threads
+ * too keeps its own values and copies them into its signals from a {@link #addSampler sampler}.
+ */
+public final class Telemetry {
+    public enum Tier {
+        /** Every loop, 50 Hz. */
+        CRITICAL(1),
+        /** Every 5th loop, 10 Hz. */
+        DIAGNOSTIC(5),
+        /** Every 50th loop, 1 Hz. */
+        STATIC(50);
+
+        final int m_periodCycles;
+
+        Tier(int periodCycles) {
+            m_periodCycles = periodCycles;
+        }
+
+        double periodSeconds() {
+            return m_periodCycles * TimedRobot.kDefaultPeriod;
+        }
+    }
+
+    private abstract static class Signal {
+        boolean m_dirty = false;
+        Tier m_tier;
+
+        abstract void publish();
+    }
+
+    public static final class DoubleSignal extends Signal {
+        private final DoublePublisher m_publisher;
+        private final Channel m_channel;
+        private double m_value;
+
+        private DoubleSignal(DoublePublisher publisher, Channel channel) {
+            m_publisher = publisher;
+            m_channel = channel;
+        }
+
+        public void set(double value) {
+            m_value = value;
+            m_dirty = true;
+            m_channel.set(value);
+        }
+
+        @Override
+        void publish() {
+            m_publisher.set(m_value);
+        }
+    }
+
+    public static final class BooleanSignal extends Signal {
+        private final BooleanPublisher m_publisher;
+        private final Channel m_channel;
+        private boolean m_value;
+
+        private BooleanSignal(BooleanPublisher publisher, Channel channel) {
+            m_publisher = publisher;
+            m_channel = channel;
+        }
+
+        public void set(boolean value) {
+            m_value = value;
+            m_dirty = true;
+            m_channel.set(value);
+        }
+
+        @Override
+        void publish() {
+            m_publisher.set(m_value);
+        }
+    }
+
+    public static final class IntegerSignal extends Signal {
+        private final IntegerPublisher m_publisher;
+        private final Channel m_channel;
+        private long m_value;
+
+        private IntegerSignal(IntegerPublisher publisher, Channel channel) {
+            m_publisher = publisher;
+            m_channel = channel;
+        }
+
+        public void set(long value) {
+            m_value = value;
+            m_dirty = true;
+            m_channel.set(value);
+        }
+
+        @Override
+        void publish() {
+            m_publisher.set(m_value);
+        }
+    }
+
+    public static final class StringSignal extends Signal {
+        private final StringPublisher m_publisher;
+        private String m_value;
+
+        private StringSignal(StringPublisher publisher) {
+            m_publisher = publisher;
+        }
+
+        public void set(String value) {
+            m_value = value;
+            m_dirty = true;
+        }
+
+        @Override
+        void publish() {
+            m_publisher.set(m_value);
+        }
+    }
+
+    private static final Tier[] kTiers = Tier.values();
+
+    private static Telemetry s_instance;
+
+    private final NetworkTableInstance m_nt = NetworkTableInstance.getDefault();
+    private final MatchLogger m_logger = MatchLogger.getInstance();
+    private final List<List<Signal>> m_tiers = new ArrayList<>();
+    private final List<Runnable> m_samplers = new ArrayList<>();
+    private final Map<String, Signal> m_topics = new HashMap<>();
+    private int m_cycle = 0;
+
+    private Telemetry() {
+        for (int i = 0; i < kTiers.length; i++) {
+            m_tiers.add(new ArrayList<>());
+        }
+    }
+
+    public static synchronized Telemetry getInstance() {
+        if (s_instance == null) {
+            s_instance = new Telemetry();
+        }
+        return s_instance;
+    }
+
+    /**
+     * Asking for a topic again returns the same signal, so it's only published and logged once.
+     *
+     * @param topic Full topic name, i.e. "/Arm/Position".
+     * @throws IllegalArgumentException If the topic already has a signal of another type or tier.
+     */
+    public DoubleSignal doubleSignal(String topic, Tier tier) {
+        DoubleSignal existing = existing(topic, DoubleSignal.class, tier);
+        if (existing != null) return existing;
+        PubSubOption period = PubSubOption.periodic(tier.periodSeconds());
+        DoublePublisher publisher = m_nt.getDoubleTopic(topic).publish(period);
+        return add(topic, new DoubleSignal(publisher, m_logger.doubleChannel(topic)), tier);
+    }
+
+    public BooleanSignal booleanSignal(String topic, Tier tier) {
+        BooleanSignal existing = existing(topic, BooleanSignal.class, tier);
+        if (existing != null) return existing;
+        PubSubOption period = PubSubOption.periodic(tier.periodSeconds());
+        BooleanPublisher publisher = m_nt.getBooleanTopic(topic).publish(period);
+        return add(topic, new BooleanSignal(publisher, m_logger.booleanChannel(topic)), tier);
+    }
+
+    public IntegerSignal integerSignal(String topic, Tier tier) {
+        IntegerSignal existing = existing(topic, IntegerSignal.class, tier);
+        if (existing != null) return existing;
+        PubSubOption period = PubSubOption.periodic(tier.periodSeconds());
+        IntegerPublisher publisher = m_nt.getIntegerTopic(topic).publish(period);
+        return add(topic, new IntegerSignal(publisher, m_logger.integerChannel(topic)), tier);
+    }
+
+    public StringSignal stringSignal(String topic, Tier tier) {
+        StringSignal existing = existing(topic, StringSignal.class, tier);
+        if (existing != null) return existing;
+        PubSubOption period = PubSubOption.periodic(tier.periodSeconds());
+        return add(topic, new StringSignal(m_nt.getStringTopic(topic).publish(period)), tier);
+    }
+
+    /** @return The topic's signal, null if it hasn't got one. */
+    private synchronized <T extends Signal> T existing(String topic, Class<T> type, Tier tier) {
+        Signal signal = m_topics.get(topic);
+        if (signal == null) return null;
+        if (!type.isInstance(signal) || signal.m_tier != tier) {
+            String kind = signal.getClass().getSimpleName();
+            throw new IllegalArgumentException(
+                    topic + " is already a " + kind + " at " + signal.m_tier);
+        }
+        return type.cast(signal);
+    }
+
+    // The publisher and channel are made outside the lock, as the MatchLogger makes signals while
+    // holding its own.
+    private synchronized <T extends Signal> T add(String topic, T signal, Tier tier) {
+        if (m_topics.putIfAbsent(topic, signal) != null) {
+            throw new IllegalStateException(topic + " was made by two threads at once");
+        }
+        signal.m_tier = tier;
+        m_tiers.get(tier.ordinal()).add(signal);
+        return signal;
+    }
+
+    /** @param sampler Run on the main loop at the start of every update(), to set signals. */
+    public synchronized void addSampler(Runnable sampler) {
+        m_samplers.add(sampler);
+    }
+
+    /** Publish every tier which is due this loop, call once at the end of robotPeriodic(). */
+    public synchronized void update() {
+        for (int i = 0; i < m_samplers.size(); i++) {
+            m_samplers.get(i).run();
+        }
+        for (Tier tier : kTiers) {
+            if (m_cycle % tier.m_periodCycles != 0) continue;
+            List<Signal> signals = m_tiers.get(tier.ordinal());
+            for (int i = 0; i < signals.size(); i++) {
+                Signal signal = signals.get(i);
+                if (signal.m_dirty) {
+                    signal.publish();
+                    signal.m_dirty = false;
+                }
+            }
+        }
+        m_cycle++;
+    }
+}
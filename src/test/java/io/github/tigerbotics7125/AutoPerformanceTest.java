@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringArraySubscriber;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.util.sendable.SendableRegistry;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Time for each auto in the chooser to finish, running on the whole simulated robot.
+ *
+ * <p>One robot runs every auto in the chooser's order. The arm is homed first, so each auto starts
+ * homed whatever ran before it. Each is selected the way the dashboard would and built during a
+ * second of disabled, like before a match. An auto holds every subsystem it uses until it's done,
+ * then their default commands take back over.
+ */
+class AutoPerformanceTest {
+    private static final double kAutoSeconds = 15;
+    private static final double kDisabledSeconds = 1;
+    private static final double kHomeTimeout = 5; // seconds
+
+    private static Robot s_robot;
+    private static PerformanceFixture s_fixture;
+    private static SimLoop s_loop;
+    private static StringArraySubscriber s_options;
+    private static StringPublisher s_selected;
+
+    @BeforeAll
+    static void setup() {
+        SimLoop.start();
+        s_robot = new Robot();
+        s_fixture = PerformanceFixture.robot("auto", s_robot);
+        s_loop = s_fixture.loop();
+
+        // The same topics the dashboard uses.
+        String chooser = "/SmartDashboard/" + SendableRegistry.getName(s_robot.m_autoChooser);
+        NetworkTableInstance nt = NetworkTableInstance.getDefault();
+        s_options = nt.getStringArrayTopic(chooser + "/options").subscribe(new String[0]);
+        s_selected = nt.getStringTopic(chooser + "/selected").publish();
+
+        // Teleop homes the arm.
+        s_loop.enable(false);
+        s_loop.timeUntil("Homing", s_robot.m_arm.isHomed(), kHomeTimeout);
+        s_loop.disable();
+        s_loop.step();
+    }
+
+    @TestFactory
+    List<DynamicTest> completionTimes() {
+        String[] options = s_options.get();
+        assertNotEquals(0, options.length, "The auto chooser has no options");
+        List<DynamicTest> tests = new ArrayList<>();
+        for (String option : options) {
+            tests.add(dynamicTest(option, () -> runAuto(option)));
+        }
+        return tests;
+    }
+
+    private void runAuto(String option) {
+        s_selected.set(option);
+        s_loop.disable();
+        s_loop.run(kDisabledSeconds);
+
+        s_loop.enable(true);
+        double seconds = s_loop.timeUntil(option, AutoPerformanceTest::autoDone, kAutoSeconds);
+        s_fixture.check("auto." + option.replace(' ', '_'), seconds);
+    }
+
+    private static boolean autoDone() {
+        Subsystem[] subsystems = {
+            s_robot.m_drivetrain,
+            s_robot.m_poseEstimator,
+            s_robot.m_intake,
+            s_robot.m_shooter,
+            s_robot.m_arm
+        };
+        for (Subsystem subsystem : subsystems) {
+            Command command = CommandScheduler.getInstance().requiring(subsystem);
+            if (command != null && command != subsystem.getDefaultCommand()) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Checks the performance tests' times against the baseline committed in {@value #kBaseline}.
+ * A time more than kTolerance slower than its baseline fails, with a loop of slack for rounding.
+ * Once the baseline has any times in it, a metric with no baseline fails in CI, so every metric is
+ * checked there. Until then, and always locally, it's only skipped, so a new one can be run before
+ * it's baselined.
+ *
+ * <p>Every time measured is also written to build/performance/, one file per suite. To accept a
+ * change which made something slower, or to baseline a new metric, copy its line from there into
+ * the baseline.
+ */
+public final class PerformanceBaseline {
+    private static final String kBaseline = "/performance_baseline.properties";
+    private static final Path kResults = Path.of("build", "performance");
+    private static final double kTolerance = .1;
+    private static final double kSlack = TimedRobot.kDefaultPeriod;
+    // Set by GitHub Actions, as by most CI.
+    private static final boolean kCI = System.getenv("CI") != null;
+
+    private final Properties m_baseline = new Properties();
+    private final Properties m_measured = new Properties();
+    private final Path m_resultsFile;
+
+    /** @param suite Name of the file the times are written to. */
+    public PerformanceBaseline(String suite) {
+        try (InputStream in = PerformanceBaseline.class.getResourceAsStream(kBaseline)) {
+            if (in != null) m_baseline.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        m_resultsFile = kResults.resolve(suite + ".properties");
+    }
+
+    /**
+     * Record a time, then fail if it's slower than the baseline allows.
+     *
+     * @param metric Key in the baseline, i.e. "arm.INTAKE_TO_AMP".
+     */
+    public void check(String metric, double seconds) {
+        m_measured.setProperty(metric, String.format("%.2f", seconds));
+        try {
+            Files.createDirectories(kResults);
+            try (OutputStream out = Files.newOutputStream(m_resultsFile)) {
+                m_measured.store(out, "Seconds, copy into src/test/resources" + kBaseline);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String baseline = m_baseline.getProperty(metric);
+        String missing = String.format("No baseline for %s, measured %.2f s", metric, seconds);
+        assertTrue(baseline != null || !kCI || m_baseline.isEmpty(), missing);
+        assumeTrue(baseline != null, missing);
+        double limit = Double.parseDouble(baseline) * (1 + kTolerance) + kSlack;
+        assertTrue(
+                seconds <= limit,
+                String.format(
+                        "%s took %.2f s, slower than its %s s baseline allows (%.2f s)",
+                        metric, seconds, baseline, limit));
+    }
+}
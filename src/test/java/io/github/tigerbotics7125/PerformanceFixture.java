@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import io.github.tigerbotics7125.Constants.ClosedLoopLocation;
+import java.util.function.Consumer;
+
+/**
+ * What every performance test runs on, the simulation stepped a loop at a time and the baseline
+ * its times are checked against.
+ *
+ * <p>The arm and shooter close their loops on the roboRIO, as they do in Robot.simulationInit(),
+ * since REVLib doesn't simulate the SparkMax's own closed loop.
+ */
+public final class PerformanceFixture {
+    private final SimLoop m_loop;
+    private final PerformanceBaseline m_baseline;
+
+    private PerformanceFixture(SimLoop loop, String suite) {
+        m_loop = loop;
+        m_baseline = new PerformanceBaseline(suite);
+    }
+
+    /**
+     * Mechanisms built on their own sim IO after {@link SimLoop#start()}, enabled in teleop.
+     *
+     * @param suite Name of the file the times are written to.
+     * @param closedLoop The mechanism's setClosedLoopLocation().
+     * @param physics Each mechanism's IO updateSim(), in the order Robot steps them.
+     */
+    public static PerformanceFixture mechanisms(
+            String suite, Consumer<ClosedLoopLocation> closedLoop, Runnable... physics) {
+        closedLoop.accept(ClosedLoopLocation.ROBORIO);
+        SimLoop loop = SimLoop.mechanisms(physics);
+        loop.enable(false);
+        return new PerformanceFixture(loop, suite);
+    }
+
+    /** The whole robot, built after {@link SimLoop#start()}, booted and left disabled. */
+    public static PerformanceFixture robot(String suite, Robot robot) {
+        robot.robotInit();
+        robot.simulationInit();
+        return new PerformanceFixture(SimLoop.robot(robot), suite);
+    }
+
+    public SimLoop loop() {
+        return m_loop;
+    }
+
+    /** Record a time, then fail if it's slower than the baseline allows. */
+    public void check(String metric, double seconds) {
+        m_baseline.check(metric, seconds);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DataLogRecord.StartRecordData;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import io.github.tigerbotics7125.tigerLib.MatchLogger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A log has to replay the same way every time, and the way the robot ran it, or comparing a replay
+ * against the match tells us nothing.
+ *
+ * <p>A few seconds of teleop are recorded from the simulated robot, then replayed twice. The log
+ * and the replay IO are singletons, so each replay runs {@link Replay} in its own JVM, the way
+ * {@code ./gradlew replay} does.
+ */
+class ReplayDeterminismTest {
+    private static final double kDisabledSeconds = 1;
+    private static final double kTeleopSeconds = 3;
+    private static final long kReplayTimeout = 60; // seconds
+
+    @TempDir Path m_dir;
+
+    @Test
+    void replaysAsRecordedEveryTime() throws IOException, InterruptedException {
+        Path log = record();
+
+        List<String> first = replay(log, "first");
+        List<String> second = replay(log, "second");
+
+        assertTrue(
+                first.stream().anyMatch(r -> r.startsWith("/Replay/Shooter/Velocity ")),
+                "The shooter wasn't replayed closing its loop onboard, as it was recorded");
+        assertEquals(first, second);
+
+        // The replay's clock starts wherever the HAL's does, so only the values line up.
+        List<String> recorded = new ArrayList<>();
+        for (String output : read(log, "/Outputs/")) {
+            recorded.add(output.replaceFirst("^/Outputs/", "/Replay/"));
+        }
+        assertEquals(
+                byChannel(recorded), byChannel(first), "The replay didn't do what the robot did");
+    }
+
+    /** Drive around in teleop with the flywheel pre-spinning, with its loop on the SparkMax. */
+    private Path record() {
+        SimLoop.start();
+        MatchLogger logger = MatchLogger.getInstance();
+        logger.setLossless(true);
+        logger.start(m_dir.toString(), "match.wpilog");
+
+        XboxControllerSim driver = new XboxControllerSim(Constants.HID.kDriverControllerPort);
+        driver.setLeftX(.3);
+        driver.setRightTriggerAxis(.6);
+        DriverStationSim.notifyNewData();
+
+        // Not simulationInit(), which moves the loops onto the roboRIO.
+        Robot robot = new Robot();
+        robot.robotInit();
+        SimLoop loop = SimLoop.robot(robot);
+        loop.run(kDisabledSeconds);
+        loop.enable(false);
+        loop.run(kTeleopSeconds);
+        loop.disable();
+        loop.step();
+        logger.flush();
+        return m_dir.resolve("match.wpilog");
+    }
+
+    /** @return Every output the replay wrote under "/Replay", as "name timestamp value". */
+    private List<String> replay(Path log, String name) throws IOException, InterruptedException {
+        Path dir = Files.createDirectories(m_dir.resolve(name));
+        Path copy = Files.copy(log, dir.resolve(log.getFileName()));
+
+        Process process =
+                new ProcessBuilder(
+                                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                                "-Djava.library.path=" + System.getProperty("java.library.path"),
+                                "-cp",
+                                System.getProperty("java.class.path"),
+                                Replay.class.getName(),
+                                copy.toString())
+                        .inheritIO()
+                        .start();
+        boolean exited = process.waitFor(kReplayTimeout, TimeUnit.SECONDS);
+        if (!exited) process.destroyForcibly();
+        assertTrue(exited, "Replay of " + name + " didn't finish in " + kReplayTimeout + " s");
+        assertEquals(0, process.exitValue(), "Replay of " + name + " failed");
+
+        Path replayed = dir.resolve("match_replay.wpilog");
+        assertTrue(Files.exists(replayed), "Replay of " + name + " didn't write a log");
+        return read(replayed, "/Replay/");
+    }
+
+    /** @return Every value logged under the prefix, as "name timestamp value". */
+    private static List<String> read(Path log, String prefix) throws IOException {
+        DataLogReader reader = new DataLogReader(log.toString());
+        assertTrue(reader.isValid(), log + " isn't a log");
+        Map<Integer, StartRecordData> entries = new HashMap<>();
+        List<String> outputs = new ArrayList<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                StartRecordData start = record.getStartData();
+                if (start.name.startsWith(prefix)) entries.put(start.entry, start);
+                continue;
+            }
+            if (record.isControl()) continue;
+            StartRecordData start = entries.get(record.getEntry());
+            if (start == null) continue;
+            String value =
+                    switch (start.type) {
+                        case "double" -> Double.toString(record.getDouble());
+                        case "int64" -> Long.toString(record.getInteger());
+                        case "boolean" -> Boolean.toString(record.getBoolean());
+                        default -> start.type;
+                    };
+            outputs.add(start.name + " " + record.getTimestamp() + " " + value);
+        }
+        return outputs;
+    }
+
+    /** @return The values each channel took in turn, without their timestamps. */
+    private static Map<String, List<String>> byChannel(List<String> outputs) {
+        Map<String, List<String>> channels = new TreeMap<>();
+        for (String output : outputs) {
+            String[] fields = output.split(" ");
+            channels.computeIfAbsent(fields[0], name -> new ArrayList<>()).add(fields[2]);
+        }
+        return channels;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import io.github.tigerbotics7125.tigerLib.SensorSnapshot;
+import io.github.tigerbotics7125.tigerLib.SparkMaxConfigurator;
+import io.github.tigerbotics7125.tigerLib.SparkMaxSim;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the simulation a loop at a time on a paused HAL clock, like {@link Replay}, so a test sees
+ * exactly the time the robot would and runs as fast as the CPU allows. Times are counted in loops,
+ * so they don't depend on how busy the machine running the tests is.
+ */
+public final class SimLoop {
+    private final Runnable m_loop;
+
+    private SimLoop(Runnable loop) {
+        m_loop = loop;
+    }
+
+    /** Start the HAL with its clock paused, disabled. Call before building any subsystem. */
+    public static void start() {
+        assertTrue(HAL.initialize(500, 0));
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+    }
+
+    /**
+     * Loop mechanisms built on their own, with what robotPeriodic() and simulationPeriodic() do
+     * for them.
+     *
+     * @param physics Each mechanism's IO updateSim(), in the order Robot steps them.
+     */
+    public static SimLoop mechanisms(Runnable... physics) {
+        SparkMaxConfigurator.getInstance().awaitAll();
+        return new SimLoop(
+                () -> {
+                    DriverStation.refreshData();
+                    SensorSnapshot.getInstance().refresh();
+                    CommandScheduler.getInstance().run();
+                    for (Runnable step : physics) {
+                        step.run();
+                    }
+                    SparkMaxSim.updateBattery();
+                });
+    }
+
+    /** Loop the whole robot, once it's been through robotInit() and simulationInit(). */
+    public static SimLoop robot(Robot robot) {
+        return new SimLoop(robot::runLoop);
+    }
+
+    public void enable(boolean autonomous) {
+        DriverStationSim.setAutonomous(autonomous);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+    }
+
+    public void disable() {
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+    }
+
+    /** Advance the clock a loop, Notifiers run as it passes them, then run the loop. */
+    public void step() {
+        SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+        m_loop.run();
+    }
+
+    public void run(double seconds) {
+        int loops = (int) Math.round(seconds / TimedRobot.kDefaultPeriod);
+        for (int i = 0; i < loops; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Step until done is true after a loop, failing if it takes longer than the timeout.
+     *
+     * @param what Named in the failure.
+     * @return Seconds it took, a whole number of loops.
+     */
+    public double timeUntil(String what, BooleanSupplier done, double timeout) {
+        int maxLoops = (int) Math.round(timeout / TimedRobot.kDefaultPeriod);
+        for (int loops = 1; loops <= maxLoops; loops++) {
+            step();
+            if (done.getAsBoolean()) return loops * TimedRobot.kDefaultPeriod;
+        }
+        return fail(what + " didn't happen within " + timeout + " s");
+    }
+}
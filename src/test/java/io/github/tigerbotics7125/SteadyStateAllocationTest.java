@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.RunCommand;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Teleop with the drivers on the sticks must not make garbage, on the roboRIO GC pauses show up as
+ * loop overruns.
+ *
+ * <p>Each cycle runs the robot's loop, robotPeriodic() then teleopPeriodic() as loopFunc() calls
+ * them. The clock is stepped and the physics run between cycles, outside what's measured, as
+ * neither happens on the roboRIO. The clock is paused while the loop runs, so every watchdog epoch
+ * lasts 0 us and boxes to a cached Long.
+ *
+ * <p>That leaves CommandScheduler.run()'s own garbage, which WPILib has no way to turn off: a name
+ * and a map entry per subsystem and scheduled command for its watchdog epochs, each loop. It's
+ * measured by swapping the robot for subsystems and commands which do nothing, under the same
+ * names, and running the scheduler alone. The robot must allocate nothing beyond that.
+ */
+class SteadyStateAllocationTest {
+    private static final int kWarmupCycles = 20_000; // Enough for the JIT to compile the loop.
+    private static final int kCycles = 5_000;
+
+    private final com.sun.management.ThreadMXBean m_threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Robot m_robot;
+
+    @BeforeEach
+    void setup() {
+        SimLoop.start();
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setEnabled(true);
+
+        // Someone driving, with the flywheel pre-spinning.
+        XboxControllerSim driver = new XboxControllerSim(Constants.HID.kDriverControllerPort);
+        driver.setRightTriggerAxis(.6);
+        driver.setLeftX(.3);
+        driver.setLeftY(-.4);
+        driver.setRightX(.2);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+
+        m_robot = new Robot();
+        m_robot.robotInit();
+        m_robot.teleopInit();
+    }
+
+    @AfterEach
+    void tearDown() {
+        CommandScheduler.getInstance().cancelAll();
+        CommandScheduler.getInstance().unregisterAllSubsystems();
+        m_robot.close();
+    }
+
+    /** @return Bytes allocated by the robot's loops. */
+    private long cycles(int count) {
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+            m_robot.simulationPeriodic();
+
+            long before = m_threads.getCurrentThreadAllocatedBytes();
+            m_robot.robotPeriodic();
+            m_robot.teleopPeriodic();
+            allocated += m_threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        return allocated;
+    }
+
+    /**
+     * Replace what the scheduler runs once teleop has settled, homing the arm included, with
+     * subsystems and commands which do nothing under the same names, and drop the button bindings.
+     * The button loop itself still runs, as it does for the robot.
+     */
+    private void standInForRobot() {
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        Subsystem[] subsystems = {
+            m_robot.m_drivetrain,
+            m_robot.m_poseEstimator,
+            m_robot.m_intake,
+            m_robot.m_shooter,
+            m_robot.m_arm
+        };
+        String[] subsystemNames = new String[subsystems.length];
+        String[] commandNames = new String[subsystems.length];
+        for (int i = 0; i < subsystems.length; i++) {
+            subsystemNames[i] = subsystems[i].getName();
+            Command command = scheduler.requiring(subsystems[i]);
+            if (command != null) commandNames[i] = command.getName();
+        }
+
+        scheduler.cancelAll();
+        scheduler.unregisterAllSubsystems();
+        scheduler.getDefaultButtonLoop().clear();
+        for (int i = 0; i < subsystems.length; i++) {
+            SubsystemBase stub = new SubsystemBase() {};
+            stub.setName(subsystemNames[i]);
+            if (commandNames[i] == null) continue;
+            Command command = new RunCommand(() -> {}, stub);
+            command.setName(commandNames[i]);
+            scheduler.schedule(command);
+        }
+    }
+
+    /** @return Bytes allocated by the scheduler alone, over count loops. */
+    private long schedulerCycles(int count) {
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+
+            long before = m_threads.getCurrentThreadAllocatedBytes();
+            CommandScheduler.getInstance().run();
+            allocated += m_threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        return allocated;
+    }
+
+    @Test
+    void teleopDoesNotAllocate() {
+        cycles(kWarmupCycles);
+        long allocated = cycles(kCycles);
+
+        standInForRobot();
+        schedulerCycles(kWarmupCycles);
+        long scheduler = schedulerCycles(kCycles);
+
+        assertTrue(
+                allocated <= scheduler,
+                "Allocated "
+                        + allocated
+                        + " bytes over "
+                        + kCycles
+                        + " teleop cycles, CommandScheduler.run() alone allocates "
+                        + scheduler);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import io.github.tigerbotics7125.Constants.Arm.ArmState;
+import io.github.tigerbotics7125.PerformanceFixture;
+import io.github.tigerbotics7125.SimLoop;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/** Time for the simulated arm to settle, for every transition between two states. */
+class ArmPerformanceTest {
+    private static final double kTimeout = 5; // seconds
+
+    private static Arm s_arm;
+    private static PerformanceFixture s_fixture;
+
+    @BeforeAll
+    static void setup() {
+        SimLoop.start();
+        ArmIOSim io = new ArmIOSim();
+        s_arm = new Arm(io);
+        s_fixture =
+                PerformanceFixture.mechanisms("arm", s_arm::setClosedLoopLocation, io::updateSim);
+    }
+
+    /** Runs in order, each transition starts from where the arm settled last. */
+    @TestFactory
+    List<DynamicTest> settleTimes() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (ArmState from : ArmState.values()) {
+            for (ArmState to : ArmState.values()) {
+                if (from == to) continue;
+                String metric = "arm." + from.name() + "_TO_" + to.name();
+                tests.add(dynamicTest(metric, () -> transition(metric, from, to)));
+            }
+        }
+        return tests;
+    }
+
+    private void transition(String metric, ArmState from, ArmState to) {
+        SimLoop loop = s_fixture.loop();
+        CommandScheduler.getInstance().schedule(s_arm.pidControl(from));
+        loop.timeUntil("Settling at " + from, s_arm.atState(), kTimeout);
+
+        CommandScheduler.getInstance().schedule(s_arm.pidControl(to));
+        s_fixture.check(metric, loop.timeUntil(metric, s_arm.atState(), kTimeout));
+    }
+}
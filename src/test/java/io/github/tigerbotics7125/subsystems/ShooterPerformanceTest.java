@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import io.github.tigerbotics7125.PerformanceFixture;
+import io.github.tigerbotics7125.SimLoop;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Simulated flywheel spin up, and how long a shot takes from the button to the note leaving. The
+ * speaker distance is unknown, so the shooter aims for kShootRPM.
+ */
+@TestMethodOrder(OrderAnnotation.class)
+class ShooterPerformanceTest {
+    private static final double kTimeout = 5; // seconds
+    private static final double kIdleSettleTime = 3; // seconds
+
+    private static Intake s_intake;
+    private static Shooter s_shooter;
+    private static PerformanceFixture s_fixture;
+
+    @BeforeAll
+    static void setup() {
+        SimLoop.start();
+        IntakeIOSim intakeIO = new IntakeIOSim();
+        ShooterIOSim shooterIO = new ShooterIOSim();
+        s_intake = new Intake(intakeIO);
+        s_shooter = new Shooter(shooterIO, () -> Double.NaN);
+        s_intake.setDefaultCommand(s_intake.disable());
+        s_fixture =
+                PerformanceFixture.mechanisms(
+                        "shooter",
+                        s_shooter::setClosedLoopLocation,
+                        intakeIO::updateSim,
+                        shooterIO::updateSim);
+    }
+
+    /** First, while the flywheel is still at rest. */
+    @Test
+    @Order(1)
+    void spinUp() {
+        CommandScheduler.getInstance()
+                .schedule(s_shooter.prepShooter().andThen(s_shooter.pidControl()));
+        s_fixture.check(
+                "shooter.spinUp",
+                s_fixture.loop().timeUntil("Spin up", s_shooter.isShooterReady(), kTimeout));
+    }
+
+    /** From a held note with the flywheel pre-spinning, as it is in a match. */
+    @Test
+    @Order(2)
+    void shot() {
+        SimLoop loop = s_fixture.loop();
+        s_shooter.setDefaultCommand(s_shooter.idleControl());
+        CommandScheduler.getInstance().cancelAll();
+        CommandScheduler.getInstance().schedule(s_intake.intake());
+        loop.timeUntil("Intaking a note", s_intake.hasNote(), kTimeout);
+        loop.run(kIdleSettleTime);
+
+        Command shot = s_shooter.shootNote(s_intake);
+        CommandScheduler.getInstance().schedule(shot);
+        double seconds = loop.timeUntil("Shooting", () -> !shot.isScheduled(), kTimeout);
+        // The shot also ends on its timeout, so check the note really left.
+        assertTrue(
+                NoteSim.getInstance().getState() == NoteSim.State.EMPTY,
+                "The note is still in the robot");
+        s_fixture.check("shooter.shot", seconds);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.tigerLib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** A missing or broken gains file must leave the compiled in gains, never a made up one. */
+class GainsFileTest {
+    private static final double kFallback = 1.5;
+
+    @TempDir Path m_dir;
+
+    private GainsFile load(String... lines) throws IOException {
+        Path path = m_dir.resolve("feedforward.properties");
+        Files.write(path, List.of(lines));
+        return new GainsFile(path, "arm");
+    }
+
+    @Test
+    void missingFileFallsBack() {
+        GainsFile gains = new GainsFile(m_dir.resolve("missing.properties"), "arm");
+        assertFalse(gains.isFitted());
+        assertEquals(kFallback, gains.get("kG", kFallback));
+        assertEquals(List.of(), gains.getWarnings());
+    }
+
+    @Test
+    void readsOnlyThisMechanism() throws IOException {
+        GainsFile gains = load("# arm.kS=9", "arm.kG=.42", "shooter.kV=.122");
+        assertTrue(gains.isFitted());
+        assertEquals(.42, gains.get("kG", kFallback));
+        assertEquals(kFallback, gains.get("kS", kFallback));
+        assertEquals(kFallback, gains.get("kV", kFallback));
+        assertEquals(List.of(), gains.getWarnings());
+    }
+
+    @Test
+    void badGainFallsBack() throws IOException {
+        GainsFile gains = load("arm.kS=", "arm.kG=.42 V", "arm.kV=NaN");
+        assertFalse(gains.isFitted());
+        assertEquals(kFallback, gains.get("kS", kFallback));
+        assertEquals(kFallback, gains.get("kG", kFallback));
+        assertEquals(kFallback, gains.get("kV", kFallback));
+        assertEquals(3, gains.getWarnings().size());
+    }
+
+    @Test
+    void unreadableFileFallsBack() throws IOException {
+        // A malformed escape, which Properties.load() throws on.
+        GainsFile gains = load("arm.kG=.42", "arm.kS=\\u00");
+        assertFalse(gains.isFitted());
+        assertEquals(kFallback, gains.get("kG", kFallback));
+        assertEquals(1, gains.getWarnings().size());
+    }
+
+    @Test
+    void deployedFileLoadsCleanly() {
+        Path deployed = Path.of("src", "main", "deploy", "feedforward.properties");
+        for (String mechanism : List.of("drivetrain", "arm", "shooter")) {
+            GainsFile gains = new GainsFile(deployed, mechanism);
+            assertEquals(List.of(), gains.getWarnings(), mechanism);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024 Tigerbotics and it's members. All rights reserved.
+ * This work is licensed under the terms of the GNU GPLv3 license
+ * found in the root directory of this project.
+ */
+package io.github.tigerbotics7125.trajgen;
+
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.math.trajectory.constraint.DifferentialDriveVoltageConstraint;
+import io.github.tigerbotics7125.Constants;
+import io.github.tigerbotics7125.autos.AutoPath;
+import io.github.tigerbotics7125.autos.AutoPath.EventMarker;
+import io.github.tigerbotics7125.tigerLib.GainsFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Generates every auto's trajectories at build time, writing them to the deploy directory for the
+ * robot to load. Run by the generateTrajectories Gradle task, poses are for the blue alliance.
+ */
+public final class GenerateTrajectories {
+    private GenerateTrajectories() {}
+
+    public static void main(String... args) throws IOException {
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+        // Constrained by the fitted feedforward once there is one, as the robot follows with it.
+        GainsFile gains = new GainsFile(Path.of(args[1]), "drivetrain");
+        for (String warning : gains.getWarnings()) {
+            System.err.println(warning);
+        }
+
+        // Driving backwards, away from the speaker.
+        TrajectoryConfig reversed = config(gains).setReversed(true);
+
+        Trajectory left =
+                TrajectoryGenerator.generateTrajectory(
+                        new Pose2d(.72, 6.68, Rotation2d.fromDegrees(-120)),
+                        List.of(),
+                        new Pose2d(2.9, 7, Rotation2d.fromDegrees(180)),
+                        reversed);
+        write(directory, "LeftShootThenDrive", left, stowThenIntake(left));
+
+        Trajectory right =
+                TrajectoryGenerator.generateTrajectory(
+                        new Pose2d(.72, 4.42, Rotation2d.fromDegrees(120)),
+                        List.of(),
+                        new Pose2d(2.9, 4.1, Rotation2d.fromDegrees(180)),
+                        reversed);
+        write(directory, "RightShootThenDrive", right, stowThenIntake(right));
+    }
+
+    private static TrajectoryConfig config(GainsFile gains) {
+        return new TrajectoryConfig(
+                        Constants.DriveTrain.kMaxAutoVelocity,
+                        Constants.DriveTrain.kMaxAutoAcceleration)
+                .setKinematics(Constants.DriveTrain.kKinematics)
+                .addConstraint(
+                        new DifferentialDriveVoltageConstraint(
+                                new SimpleMotorFeedforward(
+                                        gains.get("kS", Constants.DriveTrain.kS),
+                                        gains.get("kV", Constants.DriveTrain.kV),
+                                        gains.get("kA", Constants.DriveTrain.kA)),
+                                Constants.DriveTrain.kKinematics,
+                                Constants.DriveTrain.kMaxAutoVoltage));
+    }
+
+    /** Stow the arm straight away, then run the intake for the last second of the path. */
+    private static List<EventMarker> stowThenIntake(Trajectory trajectory) {
+        return List.of(
+                new EventMarker(0, "stow"),
+                new EventMarker(Math.max(trajectory.getTotalTimeSeconds() - 1, 0), "intake"));
+    }
+
+    private static void write(
+            Path directory, String name, Trajectory trajectory, List<EventMarker> markers)
+            throws IOException {
+        Path file = directory.resolve(name + AutoPath.kExtension);
+        new AutoPath(trajectory, markers).write(file);
+        System.out.printf(
+                "%s: %d states, %.2f s%n",
+                file, trajectory.getStates().size(), trajectory.getTotalTimeSeconds());
+    }
+}